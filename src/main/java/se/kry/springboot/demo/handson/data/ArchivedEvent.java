@@ -0,0 +1,71 @@
+package se.kry.springboot.demo.handson.data;
+
+import static se.kry.springboot.demo.handson.domain.EventConstants.SIZE_TITLE;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import javax.persistence.Column;
+import javax.persistence.Embedded;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.Table;
+import javax.persistence.Transient;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import org.springframework.data.domain.Persistable;
+
+@Entity
+@Table(indexes = @Index(name = "archived_event_last_end_idx", columnList = "last_end"))
+@Accessors(chain = true)
+@Getter
+@Setter
+public class ArchivedEvent implements Persistable<UUID> {
+
+  @Id
+  private UUID id;
+
+  @NotBlank
+  @Size(max = SIZE_TITLE)
+  private String title;
+
+  @NotNull
+  private LocalDateTime start;
+
+  @NotNull
+  private LocalDateTime end;
+
+  @Embedded
+  private Recurrence recurrence;
+
+  // Carried over from the archived event, the purge selects on it.
+  @Column(name = "last_end")
+  private LocalDateTime lastEnd;
+
+  @NotNull
+  private LocalDateTime archivedAt;
+
+  // The id is carried over from the archived event, so it cannot tell whether the row exists yet.
+  @Transient
+  @Getter(AccessLevel.NONE)
+  @Setter(AccessLevel.NONE)
+  private boolean persisted;
+
+  @Override
+  public boolean isNew() {
+    return !persisted;
+  }
+
+  @PostLoad
+  @PostPersist
+  void markPersisted() {
+    persisted = true;
+  }
+}
@@ -0,0 +1,15 @@
+package se.kry.springboot.demo.handson.data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ArchivedEventRepository extends JpaRepository<ArchivedEvent, UUID> {
+
+  @Modifying
+  @Query("delete from ArchivedEvent e where e.lastEnd < :before")
+  int deleteAllEndedBefore(@Param("before") LocalDateTime before);
+}
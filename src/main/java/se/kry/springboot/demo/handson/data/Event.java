@@ -2,18 +2,35 @@ package se.kry.springboot.demo.handson.data;
 
 import static se.kry.springboot.demo.handson.domain.EventConstants.SIZE_TITLE;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.UUID;
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
+import javax.persistence.Embedded;
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.experimental.Accessors;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.AbstractPersistable;
+import se.kry.springboot.demo.handson.domain.EventRecurrence;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "event_start_idx", columnList = "start"),
+    @Index(name = "event_last_end_idx", columnList = "last_end")})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Accessors(chain = true)
 @Getter
 @Setter
@@ -28,4 +45,33 @@ public class Event extends AbstractPersistable<UUID> {
 
   @NotNull
   private LocalDateTime end;
+
+  @Embedded
+  private Recurrence recurrence;
+
+  // End of the last occurrence, null for series that never end. Archival and purge select on it.
+  @Column(name = "last_end")
+  @Setter(AccessLevel.NONE)
+  private LocalDateTime lastEnd;
+
+  @PrePersist
+  @PreUpdate
+  void updateLastEnd() {
+    lastEnd = lastEndOf(start, end, recurrence);
+  }
+
+  static LocalDateTime lastEndOf(LocalDateTime start, LocalDateTime end, Recurrence recurrence) {
+    if (recurrence == null || recurrence.getFrequency() == null || start == null || end == null) {
+      return end;
+    }
+    var lastStart = new EventRecurrence(recurrence.getFrequency(), recurrence.getInterval(), recurrence.getCount(),
+        recurrence.getUntil(), recurrence.getExceptions()).lastStart(start);
+    return lastStart == null ? null : lastStart.plus(Duration.between(start, end));
+  }
+
+  // For repositories that keep events outside of JPA and therefore assign ids themselves.
+  Event withId(UUID id) {
+    setId(id);
+    return this;
+  }
 }
@@ -0,0 +1,52 @@
+package se.kry.springboot.demo.handson.data;
+
+import static org.hibernate.cache.spi.RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.Function;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the hit ratio of the {@link Event} second-level cache region and of the query cache region, when
+ * {@code events.cache.statistics.enabled} is {@code true} since Hibernate then collects statistics on every session.
+ */
+@Component
+@Profile("!log-store")
+@ConditionalOnProperty(prefix = "events.cache.statistics", name = "enabled", havingValue = "true")
+class EventCacheMetrics implements MeterBinder {
+
+  private final Statistics statistics;
+
+  EventCacheMetrics(EntityManagerFactory entityManagerFactory) {
+    this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bindHitRatio(registry, Event.class.getName(), statistics::getDomainDataRegionStatistics);
+    bindHitRatio(registry, DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, statistics::getQueryRegionStatistics);
+  }
+
+  private static void bindHitRatio(MeterRegistry registry, String region,
+                                   Function<String, CacheRegionStatistics> regionStatistics) {
+    Gauge.builder("events.cache.hit.ratio", () -> hitRatio(regionStatistics.apply(region)))
+        .tag("region", region)
+        .register(registry);
+  }
+
+  private static double hitRatio(CacheRegionStatistics statistics) {
+    if (statistics == null) {
+      return Double.NaN;
+    }
+    var requests = statistics.getHitCount() + statistics.getMissCount();
+    return requests == 0L ? Double.NaN : (double) statistics.getHitCount() / requests;
+  }
+}
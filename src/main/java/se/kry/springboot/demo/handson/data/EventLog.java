@@ -0,0 +1,580 @@
+package se.kry.springboot.demo.handson.data;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+
+/**
+ * Append-only, memory-mapped log of event mutations split into numbered segments, with a snapshot that periodically
+ * replaces the oldest segments.
+ *
+ * <p>Every entry is a length, a CRC32 and a body. Appends only copy the entry into the mapping of the newest segment;
+ * a background thread forces whatever was appended since its last pass to disk at once (group commit), and writers
+ * wait for the pass that covers their entry. A pass that fails leaves the log failed: waiting writers and later
+ * appends get an {@link IOException}, since what reached the disk is unknown. Compaction starts a new segment, writes
+ * the snapshot of everything before it while appends carry on, and only then deletes the segments it covers. The
+ * previous segment and the directory entry of the new one are forced by the next pass, before anything appended to
+ * the new segment counts as durable. Recovery loads the snapshot, skips the segments it covers, then replays the others
+ * up to the first torn entry of the newest one, or of the one before if a crash came before it was forced.
+ */
+@Slf4j
+class EventLog implements Closeable {
+
+  private static final Pattern SEGMENT_FILE = Pattern.compile("events-(\\d+)\\.log");
+  private static final String SNAPSHOT_FILE = "events.snapshot";
+  private static final int HEADER_SIZE = 2 * Integer.BYTES;
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+
+  private final Path directory;
+  private final int initialCapacity;
+  private final Duration groupCommitInterval;
+  private final ScheduledExecutorService flusher;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition flushed = lock.newCondition();
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private final ReentrantLock snapshotLock = new ReentrantLock();
+
+  private long segment;
+  private FileChannel channel;
+  private MappedByteBuffer buffer;
+  // Positions are logical, they keep growing across segments: base is the position of the start of the newest one.
+  private long base;
+  private long durable;
+  // Set when a flush fails, the log is unusable from then on.
+  private IOException failure;
+  // Previous segment, until the next flush forces it. Only accessed under the flush lock.
+  private Unsealed unsealed;
+  // First segment not covered by the snapshot, only written under the snapshot lock.
+  private long snapshotCut;
+
+  private EventLog(Path directory, int initialCapacity, Duration groupCommitInterval) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    this.initialCapacity = initialCapacity;
+    var segments = segments();
+    this.snapshotCut = readSnapshotCut();
+    this.segment = Math.max(segments.isEmpty() ? 1L : segments.get(segments.size() - 1), snapshotCut);
+    this.channel = FileChannel.open(segmentFile(segment), CREATE, READ, WRITE);
+    this.buffer = channel.map(READ_WRITE, 0, Math.max(channel.size(), initialCapacity));
+    forceDirectory();
+    this.groupCommitInterval = groupCommitInterval;
+    this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "event-log-flusher");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  static EventLog open(Path directory, int initialCapacity, Duration groupCommitInterval) throws IOException {
+    return new EventLog(directory, initialCapacity, groupCommitInterval);
+  }
+
+  /**
+   * Replays the snapshot then the segments it does not cover, and starts flushing. Must be called once, before
+   * anything is appended.
+   */
+  void recover(Consumer<EventRecord> puts, Consumer<UUID> deletes) throws IOException {
+    var snapshot = directory.resolve(SNAPSHOT_FILE);
+    if (Files.exists(snapshot)) {
+      try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot)))) {
+        in.readLong();
+        while (true) {
+          int length;
+          try {
+            length = in.readInt();
+          } catch (EOFException e) {
+            break;
+          }
+          var crc = in.readInt();
+          var body = in.readNBytes(length);
+          if (body.length != length || crc(body) != crc) {
+            throw new IOException("Corrupted snapshot " + snapshot);
+          }
+          apply(body, puts, deletes);
+        }
+      }
+    }
+
+    var entries = 0;
+    for (var older : segments()) {
+      var file = segmentFile(older);
+      if (older < snapshotCut) {
+        // Left behind by a crash between writing the snapshot and deleting the segments it covers.
+        log.info("Deleting {}, already covered by the snapshot", file.getFileName());
+        Files.delete(file);
+      } else if (older < segment) {
+        try (var olderChannel = FileChannel.open(file, READ, WRITE)) {
+          var olderBuffer = olderChannel.map(READ_ONLY, 0, olderChannel.size());
+          entries += replay(olderBuffer, puts, deletes);
+          if (isTorn(olderBuffer)) {
+            if (older != segment - 1) {
+              // Only the segment before the newest one can be left unforced by a crash, this is something else.
+              throw new IOException("Corrupted segment " + file);
+            }
+            // None of its entries from there on was acknowledged, nor any of the newest segment.
+            log.warn("Discarding torn entry at offset {} of {}", olderBuffer.position(), file.getFileName());
+            olderChannel.truncate(olderBuffer.position());
+            olderChannel.force(true);
+          }
+        }
+      }
+    }
+
+    entries += replay(buffer, puts, deletes);
+    if (isTorn(buffer)) {
+      var start = buffer.position();
+      log.warn("Discarding torn entry at offset {} of {}", start, segmentFile(segment).getFileName());
+      // Wipe what is left of it so that it cannot be mistaken for a valid entry after the next appends.
+      var end = Math.min(buffer.limit(), start + HEADER_SIZE + Math.max(buffer.getInt(start), 0));
+      for (var i = start; i < end; i++) {
+        buffer.put(i, (byte) 0);
+      }
+    }
+    durable = base + buffer.position();
+    log.info("Recovered {} entries up to {}", entries, segmentFile(segment).getFileName());
+
+    var interval = groupCommitInterval.toNanos();
+    flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+  }
+
+  long appendPut(EventRecord record) throws IOException {
+    return append(encode(PUT, record.id(), out -> writeRecord(out, record)));
+  }
+
+  long appendDelete(UUID id) throws IOException {
+    return append(encode(DELETE, id, out -> {
+    }));
+  }
+
+  /**
+   * Blocks until every entry up to {@code position} is on disk.
+   *
+   * @throws IOException if the log failed to flush, whether or not the entry made it to disk
+   */
+  void awaitDurable(long position) throws IOException {
+    lock.lock();
+    try {
+      while (durable < position) {
+        checkNotFailed();
+        flushed.await();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the event log to be flushed");
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Starts a new segment, so that every entry appended so far is in an older one. Does not wait for the disk: the
+   * previous segment is forced by the next flush, at the latest by {@link #snapshot(Collection, long)}. Callers that
+   * pair this with a copy of their state for the snapshot must make sure no entry is appended but not yet applied.
+   *
+   * @return the number of the new segment
+   */
+  long rotate() throws IOException {
+    flushLock.lock();
+    try {
+      // Only when rotating again before the previous segment was forced.
+      seal();
+      lock.lock();
+      try {
+        checkNotFailed();
+        var position = buffer.position();
+        var next = FileChannel.open(segmentFile(segment + 1), CREATE, READ, WRITE);
+        unsealed = new Unsealed(channel, buffer, base, position);
+        channel = next;
+        buffer = channel.map(READ_WRITE, 0, Math.max(channel.size(), initialCapacity));
+        segment++;
+        base += position;
+        return segment;
+      } finally {
+        lock.unlock();
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * Writes the given records as the snapshot of every segment before {@code cut}, then deletes those segments. Does
+   * not block appends, and is skipped if a snapshot covering more segments was written meanwhile.
+   */
+  void snapshot(Collection<EventRecord> records, long cut) throws IOException {
+    snapshotLock.lock();
+    try {
+      if (cut <= snapshotCut) {
+        return;
+      }
+      // Forces the segments before the cut, which must not be deleted before they are sealed.
+      flush();
+      var temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+      try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeLong(cut);
+        for (var record : records) {
+          var body = encode(PUT, record.id(), entry -> writeRecord(entry, record));
+          out.writeInt(body.length);
+          out.writeInt(crc(body));
+          out.write(body);
+        }
+      }
+      try (var temporaryChannel = FileChannel.open(temporary, WRITE)) {
+        temporaryChannel.force(true);
+      }
+      Files.move(temporary, directory.resolve(SNAPSHOT_FILE), ATOMIC_MOVE, REPLACE_EXISTING);
+      // Otherwise a crash could bring back the previous snapshot without the segments it needs.
+      forceDirectory();
+      snapshotCut = cut;
+
+      for (var older : segments()) {
+        if (older < cut) {
+          Files.delete(segmentFile(older));
+        }
+      }
+    } finally {
+      snapshotLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    flusher.shutdown();
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private long append(byte[] body) throws IOException {
+    lock.lock();
+    try {
+      checkNotFailed();
+      ensureCapacity(HEADER_SIZE + body.length);
+      buffer.putInt(body.length).putInt(crc(body)).put(body);
+      return base + buffer.position();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void ensureCapacity(int size) throws IOException {
+    if (buffer.remaining() >= size) {
+      return;
+    }
+    var position = buffer.position();
+    var capacity = Math.max(2L * buffer.capacity(), (long) position + size);
+    if (capacity > Integer.MAX_VALUE) {
+      throw new IOException("Event log is full, it must be compacted first");
+    }
+    buffer = channel.map(READ_WRITE, 0, capacity);
+    buffer.position(position);
+  }
+
+  private void flush() throws IOException {
+    flushLock.lock();
+    try {
+      seal();
+      MappedByteBuffer target;
+      int from;
+      int to;
+      lock.lock();
+      try {
+        checkNotFailed();
+        target = buffer;
+        from = (int) (durable - base);
+        to = buffer.position();
+      } finally {
+        lock.unlock();
+      }
+
+      if (to > from) {
+        force(target, from, to);
+      }
+      advance(base + to);
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (IOException e) {
+      log.error("Failed to flush the event log", e);
+    }
+  }
+
+  /**
+   * Forces what is left of the previous segment, and the directory now that it has a new one. Must be called under the
+   * flush lock.
+   */
+  private void seal() throws IOException {
+    if (unsealed == null) {
+      return;
+    }
+    int from;
+    lock.lock();
+    try {
+      checkNotFailed();
+      from = (int) (durable - unsealed.base());
+    } finally {
+      lock.unlock();
+    }
+    if (unsealed.end() > from) {
+      force(unsealed.buffer(), from, unsealed.end());
+    }
+    var previous = unsealed;
+    try {
+      // Give back the room mapped ahead of the last entry, the old mapping is not accessed anymore.
+      previous.channel().truncate(previous.end());
+      previous.channel().close();
+      unsealed = null;
+      forceDirectory();
+    } catch (IOException e) {
+      throw fail(e);
+    }
+    advance(previous.base() + previous.end());
+  }
+
+  private void force(MappedByteBuffer target, int from, int to) throws IOException {
+    try {
+      target.force(from, to - from);
+    } catch (UncheckedIOException e) {
+      throw fail(e.getCause());
+    }
+  }
+
+  private void forceDirectory() throws IOException {
+    try (var directoryChannel = FileChannel.open(directory, READ)) {
+      directoryChannel.force(true);
+    }
+  }
+
+  private void advance(long position) {
+    lock.lock();
+    try {
+      durable = Math.max(durable, position);
+      flushed.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Fails the log and wakes up the writers waiting for it.
+   */
+  private IOException fail(IOException cause) {
+    lock.lock();
+    try {
+      if (failure == null) {
+        failure = cause;
+      }
+      flushed.signalAll();
+      return cause;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Must be called under the lock.
+   */
+  private void checkNotFailed() throws IOException {
+    if (failure != null) {
+      throw new IOException("Event log failed to flush", failure);
+    }
+  }
+
+  private Path segmentFile(long number) {
+    return directory.resolve(String.format("events-%010d.log", number));
+  }
+
+  private List<Long> segments() throws IOException {
+    try (var files = Files.list(directory)) {
+      return files
+          .map(file -> SEGMENT_FILE.matcher(file.getFileName().toString()))
+          .filter(Matcher::matches)
+          .map(matcher -> Long.parseLong(matcher.group(1)))
+          .sorted()
+          .toList();
+    }
+  }
+
+  private long readSnapshotCut() throws IOException {
+    var snapshot = directory.resolve(SNAPSHOT_FILE);
+    if (!Files.exists(snapshot)) {
+      return 0L;
+    }
+    try (var in = new DataInputStream(Files.newInputStream(snapshot))) {
+      return in.readLong();
+    }
+  }
+
+  /**
+   * Applies the entries from the position of the buffer on, and leaves it at the end of the last valid one.
+   */
+  private static int replay(ByteBuffer buffer, Consumer<EventRecord> puts, Consumer<UUID> deletes)
+      throws IOException {
+    var entries = 0;
+    while (buffer.remaining() >= HEADER_SIZE) {
+      var start = buffer.position();
+      var length = buffer.getInt();
+      var crc = buffer.getInt();
+      if (length <= 0 || length > buffer.remaining()) {
+        buffer.position(start);
+        break;
+      }
+      var body = new byte[length];
+      buffer.get(body);
+      if (crc(body) != crc) {
+        buffer.position(start);
+        break;
+      }
+      apply(body, puts, deletes);
+      entries++;
+    }
+    return entries;
+  }
+
+  /**
+   * Whether {@link #replay} stopped at a partially written or corrupted entry rather than at the zeroes that follow
+   * the last one.
+   */
+  private static boolean isTorn(ByteBuffer buffer) {
+    return buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) != 0;
+  }
+
+  private static void apply(byte[] body, Consumer<EventRecord> puts, Consumer<UUID> deletes) throws IOException {
+    var in = new DataInputStream(new ByteArrayInputStream(body));
+    var operation = in.readByte();
+    var id = new UUID(in.readLong(), in.readLong());
+    switch (operation) {
+      case PUT -> puts.accept(readRecord(in, id));
+      case DELETE -> deletes.accept(id);
+      default -> throw new IOException("Unknown operation " + operation);
+    }
+  }
+
+  private static byte[] encode(byte operation, UUID id, EntryWriter writer) {
+    try {
+      var bytes = new ByteArrayOutputStream(128);
+      var out = new DataOutputStream(bytes);
+      out.writeByte(operation);
+      out.writeLong(id.getMostSignificantBits());
+      out.writeLong(id.getLeastSignificantBits());
+      writer.write(out);
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      // Cannot happen when writing to memory.
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void writeRecord(DataOutput out, EventRecord record) throws IOException {
+    out.writeUTF(record.title());
+    writeDateTime(out, record.start());
+    writeDateTime(out, record.end());
+    out.writeBoolean(record.frequency() != null);
+    if (record.frequency() != null) {
+      out.writeUTF(record.frequency().name());
+      out.writeInt(record.interval() == null ? 1 : record.interval());
+      out.writeInt(record.count() == null ? -1 : record.count());
+      out.writeBoolean(record.until() != null);
+      if (record.until() != null) {
+        writeDateTime(out, record.until());
+      }
+      var exceptions = record.exceptions() == null ? Set.<LocalDateTime>of() : record.exceptions();
+      out.writeInt(exceptions.size());
+      for (var exception : exceptions) {
+        writeDateTime(out, exception);
+      }
+    }
+  }
+
+  private static EventRecord readRecord(DataInput in, UUID id) throws IOException {
+    var title = in.readUTF();
+    var start = readDateTime(in);
+    var end = readDateTime(in);
+    if (!in.readBoolean()) {
+      return new EventRecord(id, title, start, end, null, null, null, null, null);
+    }
+    var frequency = Frequency.valueOf(in.readUTF());
+    var interval = in.readInt();
+    var count = in.readInt();
+    var until = in.readBoolean() ? readDateTime(in) : null;
+    var exceptions = new HashSet<LocalDateTime>();
+    for (var i = in.readInt(); i > 0; i--) {
+      exceptions.add(readDateTime(in));
+    }
+    return new EventRecord(id, title, start, end, frequency, interval, count < 0 ? null : count, until,
+        exceptions.isEmpty() ? null : Set.copyOf(exceptions));
+  }
+
+  private static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+    out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+    out.writeInt(dateTime.getNano());
+  }
+
+  private static LocalDateTime readDateTime(DataInput in) throws IOException {
+    return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+  }
+
+  private static int crc(byte[] body) {
+    var crc = new CRC32();
+    crc.update(body);
+    return (int) crc.getValue();
+  }
+
+  private record Unsealed(FileChannel channel, MappedByteBuffer buffer, long base, int end) {
+  }
+
+  @FunctionalInterface
+  private interface EntryWriter {
+    void write(DataOutput out) throws IOException;
+  }
+}
@@ -0,0 +1,74 @@
+package se.kry.springboot.demo.handson.data;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+
+/**
+ * Immutable copy of an {@link Event}, as kept by the {@link LogStructuredEventRepository}.
+ */
+record EventRecord(UUID id, String title, LocalDateTime start, LocalDateTime end,
+                   Frequency frequency, Integer interval, Integer count, LocalDateTime until,
+                   Set<LocalDateTime> exceptions) {
+
+  static EventRecord fromEvent(Event event) {
+    var recurrence = event.getRecurrence();
+    if (recurrence == null || recurrence.getFrequency() == null) {
+      return new EventRecord(event.getId(), event.getTitle(), event.getStart(), event.getEnd(),
+          null, null, null, null, null);
+    }
+    return new EventRecord(event.getId(), event.getTitle(), event.getStart(), event.getEnd(),
+        recurrence.getFrequency(), recurrence.getInterval(), recurrence.getCount(), recurrence.getUntil(),
+        recurrence.getExceptions() == null ? null : Set.copyOf(recurrence.getExceptions()));
+  }
+
+  Event toEvent() {
+    return new Event()
+        .setTitle(title)
+        .setStart(start)
+        .setEnd(end)
+        .setRecurrence(recurrence())
+        .withId(id);
+  }
+
+  /**
+   * Same as {@link Event#getLastEnd()} once persisted.
+   */
+  LocalDateTime lastEnd() {
+    return Event.lastEndOf(start, end, recurrence());
+  }
+
+  private Recurrence recurrence() {
+    if (frequency == null) {
+      return null;
+    }
+    return new Recurrence()
+        .setFrequency(frequency)
+        .setInterval(interval)
+        .setCount(count)
+        .setUntil(until)
+        .setExceptions(exceptions);
+  }
+
+  Object attribute(String name) {
+    return switch (name) {
+      case "id" -> id;
+      case "title" -> title;
+      case "start" -> start;
+      case "end" -> end;
+      case "recurrence" -> recurrence();
+      default -> throw new IllegalArgumentException("Unknown attribute " + name);
+    };
+  }
+
+  static Class<?> attributeType(String name) {
+    return switch (name) {
+      case "id" -> UUID.class;
+      case "title" -> String.class;
+      case "start", "end" -> LocalDateTime.class;
+      case "recurrence" -> Recurrence.class;
+      default -> throw new IllegalArgumentException("Unknown attribute " + name);
+    };
+  }
+}
@@ -1,7 +1,55 @@
 package se.kry.springboot.demo.handson.data;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import org.springframework.data.jpa.repository.JpaRepository;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Only the operations the services need, so that the {@link LogStructuredEventRepository} can implement all of them.
+ */
+public interface EventRepository extends Repository<Event, UUID>, EventSelectionRepository {
+
+  <S extends Event> S save(S entity);
+
+  Optional<Event> findById(UUID id);
+
+  List<Event> findAllById(Iterable<UUID> ids);
+
+  long count();
+
+  void delete(Event entity);
+
+  /**
+   * Page of events, without counting all events.
+   */
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  List<Event> findAllBy(Pageable pageable);
+
+  @Query("select e from Event e where " + EventSelection.SINGLE_EVENTS_BETWEEN)
+  Page<Event> findSingleEventsBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                      Pageable pageable);
+
+  // An occurrence starting in the window ends after its start, so series that ended before it are left out.
+  @Query("select e from Event e where e.recurrence.frequency is not null and e.start < :to"
+      + " and (e.lastEnd is null or e.lastEnd >= :from)")
+  List<Event> findSeriesOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+  List<Event> findByLastEndBeforeOrderByIdAsc(LocalDateTime cutoff, Pageable pageable);
+
+  List<Event> findByLastEndBeforeAndIdGreaterThanOrderByIdAsc(LocalDateTime cutoff, UUID after, Pageable pageable);
 
-public interface EventRepository extends JpaRepository<Event, UUID> {
+  @Modifying
+  @Query("delete from Event e where e.lastEnd < :before")
+  int deleteAllEndedBefore(@Param("before") LocalDateTime before);
 }
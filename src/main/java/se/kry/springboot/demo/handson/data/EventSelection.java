@@ -0,0 +1,24 @@
+package se.kry.springboot.demo.handson.data;
+
+import static java.util.stream.Collectors.joining;
+
+import java.util.List;
+
+/**
+ * Queries selecting only some attributes of {@link Event}, built once per combination of attributes.
+ */
+public record EventSelection(List<String> attributes, String query, String queryById, String queryByIds,
+                             String queryBetween) {
+
+  static final String SINGLE_EVENTS_BETWEEN =
+      "e.recurrence.frequency is null and e.start >= :from and e.start < :to";
+
+  public static EventSelection of(List<String> attributes) {
+    var select = attributes.stream()
+        .map(attribute -> "e." + attribute)
+        .collect(joining(", ", "select ", ""));
+    var query = select + " from Event e";
+    return new EventSelection(List.copyOf(attributes), query, query + " where e.id = :id",
+        select + ", e.id from Event e where e.id in :ids", query + " where " + SINGLE_EVENTS_BETWEEN);
+  }
+}
@@ -0,0 +1,28 @@
+package se.kry.springboot.demo.handson.data;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface EventSelectionRepository {
+
+  /**
+   * Page of selected attributes, without counting all events.
+   */
+  List<Tuple> findAllSelected(EventSelection selection, Pageable pageable);
+
+  Optional<Tuple> findSelectedById(EventSelection selection, UUID id);
+
+  /**
+   * Selected attributes followed by the id, in no particular order.
+   */
+  List<Tuple> findAllSelectedById(EventSelection selection, Collection<UUID> ids);
+
+  Page<Tuple> findSelectedSingleEventsBetween(EventSelection selection, LocalDateTime from, LocalDateTime to,
+                                              Pageable pageable);
+}
@@ -0,0 +1,74 @@
+package se.kry.springboot.demo.handson.data;
+
+import static se.kry.springboot.demo.handson.data.EventSelection.SINGLE_EVENTS_BETWEEN;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+class EventSelectionRepositoryImpl implements EventSelectionRepository {
+
+  private static final String COUNT_SINGLE_EVENTS_BETWEEN =
+      "select count(e) from Event e where " + SINGLE_EVENTS_BETWEEN;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<Tuple> findAllSelected(EventSelection selection, Pageable pageable) {
+    return paged(entityManager.createQuery(
+        QueryUtils.applySorting(selection.query(), pageable.getSort(), "e"), Tuple.class), pageable)
+        .getResultList();
+  }
+
+  @Override
+  public Optional<Tuple> findSelectedById(EventSelection selection, UUID id) {
+    return entityManager.createQuery(selection.queryById(), Tuple.class)
+        .setParameter("id", id)
+        .getResultStream()
+        .findFirst();
+  }
+
+  @Override
+  public List<Tuple> findAllSelectedById(EventSelection selection, Collection<UUID> ids) {
+    if (ids.isEmpty()) {
+      return List.of();
+    }
+    return entityManager.createQuery(selection.queryByIds(), Tuple.class)
+        .setParameter("ids", ids)
+        .getResultList();
+  }
+
+  @Override
+  public Page<Tuple> findSelectedSingleEventsBetween(EventSelection selection, LocalDateTime from, LocalDateTime to,
+                                                     Pageable pageable) {
+    var content = paged(entityManager.createQuery(
+        QueryUtils.applySorting(selection.queryBetween(), pageable.getSort(), "e"), Tuple.class), pageable)
+        .setParameter("from", from)
+        .setParameter("to", to)
+        .getResultList();
+    return PageableExecutionUtils.getPage(content, pageable, () -> entityManager
+        .createQuery(COUNT_SINGLE_EVENTS_BETWEEN, Long.class)
+        .setParameter("from", from)
+        .setParameter("to", to)
+        .getSingleResult());
+  }
+
+  private static <T> TypedQuery<T> paged(TypedQuery<T> query, Pageable pageable) {
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset());
+      query.setMaxResults(pageable.getPageSize());
+    }
+    return query;
+  }
+}
@@ -0,0 +1,34 @@
+package se.kry.springboot.demo.handson.data;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Set;
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores a set of date-times as one comma-separated column, so that a series keeps a single row whatever the number
+ * of exceptions.
+ */
+@Converter
+public class LocalDateTimeSetConverter implements AttributeConverter<Set<LocalDateTime>, String> {
+
+  @Override
+  public String convertToDatabaseColumn(Set<LocalDateTime> attribute) {
+    if (attribute == null || attribute.isEmpty()) {
+      return null;
+    }
+    return attribute.stream().sorted().map(LocalDateTime::toString).collect(joining(","));
+  }
+
+  @Override
+  public Set<LocalDateTime> convertToEntityAttribute(String dbData) {
+    if (dbData == null || dbData.isEmpty()) {
+      return null;
+    }
+    return Arrays.stream(dbData.split(",")).map(LocalDateTime::parse).collect(toUnmodifiableSet());
+  }
+}
@@ -0,0 +1,25 @@
+package se.kry.springboot.demo.handson.data;
+
+import java.io.IOException;
+import javax.validation.Validator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("log-store")
+@EnableConfigurationProperties(LogStoreProperties.class)
+class LogStoreConfiguration {
+
+  @Bean(destroyMethod = "close")
+  EventLog eventLog(LogStoreProperties properties) throws IOException {
+    return EventLog.open(properties.directory(), Math.toIntExact(properties.initialCapacity().toBytes()),
+        properties.groupCommitInterval());
+  }
+
+  @Bean
+  LogStructuredEventRepository logStructuredEventRepository(EventLog eventLog, Validator validator) {
+    return new LogStructuredEventRepository(eventLog, validator);
+  }
+}
@@ -0,0 +1,21 @@
+package se.kry.springboot.demo.handson.data;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the {@link LogStructuredEventRepository}, used instead of the JPA one under the {@code log-store}
+ * profile. The log is compacted into a snapshot every {@code events.log-store.snapshot-interval} (default
+ * {@code PT5M}).
+ */
+@ConstructorBinding
+@ConfigurationProperties("events.log-store")
+public record LogStoreProperties(
+    @DefaultValue("data") Path directory,
+    @DefaultValue("2ms") Duration groupCommitInterval,
+    @DefaultValue("64MB") DataSize initialCapacity) {
+}
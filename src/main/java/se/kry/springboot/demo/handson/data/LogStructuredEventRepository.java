@@ -0,0 +1,363 @@
+package se.kry.springboot.demo.handson.data;
+
+import static java.util.Comparator.comparing;
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.persistence.Tuple;
+import javax.persistence.TupleElement;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validator;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.util.Streamable;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * {@link EventRepository} that keeps every event in memory and persists each mutation to an {@link EventLog} instead
+ * of a database. Writes return once their log entry is on disk. Queries that JPA answers through an index walk the
+ * whole map here, except the id-ordered ones.
+ */
+public class LogStructuredEventRepository implements EventRepository {
+
+  private final ConcurrentSkipListMap<UUID, EventRecord> events = new ConcurrentSkipListMap<>();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final EventLog eventLog;
+  private final Validator validator;
+
+  // Only written under the write lock, ConcurrentSkipListMap.size() walks the whole map.
+  private volatile int size;
+
+  public LogStructuredEventRepository(EventLog eventLog, Validator validator) {
+    this.eventLog = eventLog;
+    this.validator = validator;
+    try {
+      eventLog.recover(record -> events.put(record.id(), record), events::remove);
+    } catch (IOException e) {
+      throw failure(e);
+    }
+    this.size = events.size();
+  }
+
+  @Scheduled(initialDelayString = "${events.log-store.snapshot-interval:PT5M}",
+      fixedDelayString = "${events.log-store.snapshot-interval:PT5M}")
+  public void compact() {
+    // Only starting a new segment is done under the lock, so that every write is either entirely before the cut or
+    // entirely after it. The records are copied afterwards and may include writes made after the cut, which is fine:
+    // they are in the new segment too, and replaying it over the snapshot applies them again in order.
+    long cut;
+    writeLock.lock();
+    try {
+      cut = eventLog.rotate();
+    } catch (IOException e) {
+      throw failure(e);
+    } finally {
+      writeLock.unlock();
+    }
+    try {
+      eventLog.snapshot(List.copyOf(events.values()), cut);
+    } catch (IOException e) {
+      throw failure(e);
+    }
+  }
+
+  // Writes
+
+  @Override
+  public <S extends Event> S save(S entity) {
+    awaitDurable(put(List.of(entity)));
+    return entity;
+  }
+
+  @Override
+  public void delete(Event entity) {
+    if (entity.getId() != null) {
+      awaitDurable(remove(List.of(entity.getId())));
+    }
+  }
+
+  @Override
+  public int deleteAllEndedBefore(LocalDateTime before) {
+    var ids = events.values().stream()
+        .filter(record -> endedBefore(record, before))
+        .map(EventRecord::id)
+        .toList();
+    awaitDurable(remove(ids));
+    return ids.size();
+  }
+
+  // Reads
+
+  @Override
+  public Optional<Event> findById(UUID id) {
+    return Optional.ofNullable(events.get(requireNonNull(id))).map(EventRecord::toEvent);
+  }
+
+  @Override
+  public List<Event> findAllBy(Pageable pageable) {
+    return slice(events.values().stream(), pageable).map(EventRecord::toEvent).toList();
+  }
+
+  @Override
+  public List<Event> findAllById(Iterable<UUID> ids) {
+    return Streamable.of(ids).stream()
+        .map(events::get)
+        .filter(Objects::nonNull)
+        .map(EventRecord::toEvent)
+        .toList();
+  }
+
+  @Override
+  public long count() {
+    return size;
+  }
+
+  @Override
+  public Page<Event> findSingleEventsBetween(LocalDateTime from, LocalDateTime to, Pageable pageable) {
+    return page(singleEventsBetween(from, to), pageable, EventRecord::toEvent);
+  }
+
+  @Override
+  public List<Event> findSeriesOverlapping(LocalDateTime from, LocalDateTime to) {
+    return events.values().stream()
+        .filter(record -> record.frequency() != null && record.start().isBefore(to))
+        .filter(record -> record.lastEnd() == null || !record.lastEnd().isBefore(from))
+        .map(EventRecord::toEvent)
+        .toList();
+  }
+
+  @Override
+  public List<Event> findByLastEndBeforeOrderByIdAsc(LocalDateTime cutoff, Pageable pageable) {
+    return endedEvents(events.values().stream(), cutoff, pageable);
+  }
+
+  @Override
+  public List<Event> findByLastEndBeforeAndIdGreaterThanOrderByIdAsc(LocalDateTime cutoff, UUID after,
+                                                                     Pageable pageable) {
+    return endedEvents(events.tailMap(after, false).values().stream(), cutoff, pageable);
+  }
+
+  @Override
+  public List<Tuple> findAllSelected(EventSelection selection, Pageable pageable) {
+    return slice(events.values().stream(), pageable).map(record -> tupleFromRecord(selection, record)).toList();
+  }
+
+  @Override
+  public Optional<Tuple> findSelectedById(EventSelection selection, UUID id) {
+    return Optional.ofNullable(events.get(id)).map(record -> tupleFromRecord(selection, record));
+  }
+
+  @Override
+  public List<Tuple> findAllSelectedById(EventSelection selection, Collection<UUID> ids) {
+    var aliases = Stream.concat(selection.attributes().stream(), Stream.of("id")).toList();
+    return ids.stream()
+        .map(events::get)
+        .filter(Objects::nonNull)
+        .<Tuple>map(record -> new ValuesTuple(aliases, aliases.stream().map(record::attribute).toArray()))
+        .toList();
+  }
+
+  @Override
+  public Page<Tuple> findSelectedSingleEventsBetween(EventSelection selection, LocalDateTime from, LocalDateTime to,
+                                                     Pageable pageable) {
+    return page(singleEventsBetween(from, to), pageable, record -> tupleFromRecord(selection, record));
+  }
+
+  // Internals
+
+  private long put(List<? extends Event> entities) {
+    for (var entity : entities) {
+      var violations = validator.validate(entity);
+      if (!violations.isEmpty()) {
+        throw new ConstraintViolationException(violations);
+      }
+    }
+
+    writeLock.lock();
+    try {
+      var position = 0L;
+      for (var entity : entities) {
+        if (entity.isNew()) {
+          entity.withId(UUID.randomUUID());
+        }
+        var record = EventRecord.fromEvent(entity);
+        position = eventLog.appendPut(record);
+        if (events.put(record.id(), record) == null) {
+          size++;
+        }
+      }
+      return position;
+    } catch (IOException e) {
+      throw failure(e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * @return the log position to wait for, {@code 0} if none of the events existed
+   */
+  private long remove(Iterable<? extends UUID> ids) {
+    writeLock.lock();
+    try {
+      var position = 0L;
+      for (var id : ids) {
+        if (events.containsKey(id)) {
+          position = eventLog.appendDelete(id);
+          events.remove(id);
+          size--;
+        }
+      }
+      return position;
+    } catch (IOException e) {
+      throw failure(e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void awaitDurable(long position) {
+    try {
+      eventLog.awaitDurable(position);
+    } catch (IOException e) {
+      throw failure(e);
+    }
+  }
+
+  private Stream<EventRecord> singleEventsBetween(LocalDateTime from, LocalDateTime to) {
+    return events.values().stream()
+        .filter(record -> record.frequency() == null)
+        .filter(record -> !record.start().isBefore(from) && record.start().isBefore(to));
+  }
+
+  private static boolean endedBefore(EventRecord record, LocalDateTime cutoff) {
+    var lastEnd = record.lastEnd();
+    return lastEnd != null && lastEnd.isBefore(cutoff);
+  }
+
+  private static List<Event> endedEvents(Stream<EventRecord> records, LocalDateTime cutoff, Pageable pageable) {
+    var matching = records.filter(record -> endedBefore(record, cutoff));
+    return (pageable.isPaged() ? matching.limit(pageable.getPageSize()) : matching)
+        .map(EventRecord::toEvent)
+        .toList();
+  }
+
+  private static Stream<EventRecord> slice(Stream<EventRecord> records, Pageable pageable) {
+    var sorted = pageable.getSort().isSorted() ? records.sorted(comparator(pageable.getSort())) : records;
+    return pageable.isPaged() ? sorted.skip(pageable.getOffset()).limit(pageable.getPageSize()) : sorted;
+  }
+
+  private static <T> Page<T> page(Stream<EventRecord> records, Pageable pageable, Function<EventRecord, T> mapper) {
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(records.map(mapper).toList());
+    }
+    var matching = (pageable.getSort().isSorted() ? records.sorted(comparator(pageable.getSort())) : records).toList();
+    var content = matching.stream()
+        .skip(pageable.getOffset())
+        .limit(pageable.getPageSize())
+        .map(mapper)
+        .toList();
+    return new PageImpl<>(content, pageable, matching.size());
+  }
+
+  private static Comparator<EventRecord> comparator(Sort sort) {
+    Comparator<EventRecord> result = (left, right) -> 0;
+    for (var order : sort) {
+      Comparator<EventRecord> comparator = switch (order.getProperty()) {
+        case "id" -> comparing(EventRecord::id);
+        case "title" -> comparing(EventRecord::title);
+        case "start" -> comparing(EventRecord::start);
+        case "end" -> comparing(EventRecord::end);
+        default -> throw new InvalidDataAccessApiUsageException("Cannot sort events by " + order.getProperty());
+      };
+      result = result.thenComparing(order.isDescending() ? comparator.reversed() : comparator);
+    }
+    return result;
+  }
+
+  private static Tuple tupleFromRecord(EventSelection selection, EventRecord record) {
+    return new ValuesTuple(selection.attributes(), selection.attributes().stream().map(record::attribute).toArray());
+  }
+
+  private static DataAccessResourceFailureException failure(IOException e) {
+    return new DataAccessResourceFailureException("Event log failure", e);
+  }
+
+  /**
+   * Tuple of attribute values, aliased by attribute name.
+   */
+  private record ValuesTuple(List<String> aliases, Object[] values) implements Tuple {
+
+    @Override
+    public <X> X get(TupleElement<X> tupleElement) {
+      if (!getElements().contains(tupleElement)) {
+        throw new IllegalArgumentException("Not an element of this tuple: " + tupleElement.getAlias());
+      }
+      return tupleElement.getJavaType().cast(get(tupleElement.getAlias()));
+    }
+
+    @Override
+    public <X> X get(String alias, Class<X> type) {
+      return type.cast(get(alias));
+    }
+
+    @Override
+    public Object get(String alias) {
+      var i = aliases.indexOf(alias);
+      if (i < 0) {
+        throw new IllegalArgumentException("Unknown alias " + alias);
+      }
+      return values[i];
+    }
+
+    @Override
+    public <X> X get(int i, Class<X> type) {
+      return type.cast(values[i]);
+    }
+
+    @Override
+    public Object get(int i) {
+      return values[i];
+    }
+
+    @Override
+    public Object[] toArray() {
+      return values.clone();
+    }
+
+    @Override
+    public List<TupleElement<?>> getElements() {
+      return aliases.stream()
+          .<TupleElement<?>>map(alias -> new ValueElement<>(alias, EventRecord.attributeType(alias)))
+          .toList();
+    }
+  }
+
+  private record ValueElement<X>(String alias, Class<? extends X> javaType) implements TupleElement<X> {
+
+    @Override
+    public Class<? extends X> getJavaType() {
+      return javaType;
+    }
+
+    @Override
+    public String getAlias() {
+      return alias;
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package se.kry.springboot.demo.handson.data;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Embeddable;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+
+@Embeddable
+@Accessors(chain = true)
+@Getter
+@Setter
+public class Recurrence {
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "recurrence_frequency")
+  private Frequency frequency;
+
+  @Column(name = "recurrence_interval")
+  private Integer interval;
+
+  @Column(name = "recurrence_count")
+  private Integer count;
+
+  @Column(name = "recurrence_until")
+  private LocalDateTime until;
+
+  @Convert(converter = LocalDateTimeSetConverter.class)
+  @Column(name = "recurrence_exceptions", length = 8192)
+  private Set<LocalDateTime> exceptions;
+}
@@ -0,0 +1,47 @@
+package se.kry.springboot.demo.handson.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import javax.validation.Validator;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * {@link LogStructuredEventRepository} over a log of its own in a temporary directory, deleted on close. Exercises the
+ * same code as the real log store without ever touching its log.
+ */
+public final class ScratchEventRepository extends LogStructuredEventRepository implements Closeable {
+
+  private static final int INITIAL_CAPACITY = 1 << 20;
+
+  private final EventLog eventLog;
+  private final Path directory;
+
+  private ScratchEventRepository(EventLog eventLog, Path directory, Validator validator) {
+    super(eventLog, validator);
+    this.eventLog = eventLog;
+    this.directory = directory;
+  }
+
+  public static ScratchEventRepository open(Duration groupCommitInterval, Validator validator) throws IOException {
+    var directory = Files.createTempDirectory("events-scratch-");
+    try {
+      return new ScratchEventRepository(EventLog.open(directory, INITIAL_CAPACITY, groupCommitInterval), directory,
+          validator);
+    } catch (IOException | RuntimeException e) {
+      FileSystemUtils.deleteRecursively(directory);
+      throw e;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      eventLog.close();
+    } finally {
+      FileSystemUtils.deleteRecursively(directory);
+    }
+  }
+}
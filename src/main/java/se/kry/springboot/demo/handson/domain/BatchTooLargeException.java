@@ -0,0 +1,26 @@
+package se.kry.springboot.demo.handson.domain;
+
+import lombok.Getter;
+
+public class BatchTooLargeException extends IllegalArgumentException {
+
+  @Getter
+  private final int size;
+  @Getter
+  private final int maxSize;
+
+  public BatchTooLargeException(int size, int maxSize) {
+    this.size = size;
+    this.maxSize = maxSize;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format("Batch of %d ids exceeds the maximum of %d", size, maxSize);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
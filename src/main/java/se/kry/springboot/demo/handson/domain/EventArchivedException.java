@@ -0,0 +1,24 @@
+package se.kry.springboot.demo.handson.domain;
+
+import java.util.UUID;
+import lombok.Getter;
+
+public class EventArchivedException extends IllegalStateException {
+
+  @Getter
+  private final UUID id;
+
+  public EventArchivedException(UUID id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format("Event %s is archived and can no longer be modified", id);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
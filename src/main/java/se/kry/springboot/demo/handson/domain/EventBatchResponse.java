@@ -0,0 +1,10 @@
+package se.kry.springboot.demo.handson.domain;
+
+import java.util.List;
+import java.util.UUID;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+public record EventBatchResponse<T>(@NotNull List<@Valid T> events,
+                                    @NotNull List<UUID> missing) {
+}
@@ -2,4 +2,6 @@ package se.kry.springboot.demo.handson.domain;
 
 public interface EventConstants {
   int SIZE_TITLE = 256;
+  int MAX_BATCH_SIZE = 100;
+  int MAX_WINDOW_PAGE_END = 10_000;
 }
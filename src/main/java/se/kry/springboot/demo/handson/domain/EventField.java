@@ -0,0 +1,53 @@
+package se.kry.springboot.demo.handson.domain;
+
+import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toUnmodifiableMap;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fields of an {@link EventResponse} that can be requested individually, in the order of its record components.
+ */
+public enum EventField {
+  ID,
+  TITLE,
+  START,
+  END,
+  RECURRENCE;
+
+  private static final Map<String, EventField> BY_COMPONENT;
+
+  static {
+    // Fails fast if EventResponse gains or loses a component without this enum following.
+    var components = EventResponse.class.getRecordComponents();
+    if (components.length != values().length) {
+      throw new IllegalStateException("EventField does not match the components of EventResponse");
+    }
+    BY_COMPONENT = Arrays.stream(components)
+        .map(component -> valueOf(component.getName().toUpperCase(Locale.ROOT)))
+        .collect(toUnmodifiableMap(EventField::component, identity()));
+  }
+
+  public String component() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * @param fields comma-separated names of {@link EventResponse} components
+   */
+  public static Set<EventField> parse(String fields) {
+    var result = EnumSet.noneOf(EventField.class);
+    for (var name : fields.split(",")) {
+      var field = BY_COMPONENT.get(name.trim());
+      if (field == null) {
+        throw new UnknownFieldException(name.trim());
+      }
+      result.add(field);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,83 @@
+package se.kry.springboot.demo.handson.domain;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+
+public record EventRecurrence(
+    @NotNull Frequency frequency,
+    @Positive Integer interval,
+    @Positive Integer count,
+    LocalDateTime until,
+    Set<LocalDateTime> exceptions) {
+
+  public EventRecurrence {
+    interval = interval == null ? 1 : interval;
+    exceptions = exceptions == null ? Set.of() : Set.copyOf(exceptions);
+  }
+
+  /**
+   * Expands the occurrences of a series first starting at {@code first} that start in [{@code from}, {@code to}),
+   * jumping straight to the first candidate so that the cost only depends on the size of the window.
+   */
+  public List<LocalDateTime> occurrenceStarts(LocalDateTime first, LocalDateTime from, LocalDateTime to) {
+    var unit = frequency.unit();
+    var index = first.isBefore(from) ? unit.between(first, from) / interval : 0L;
+    var starts = new ArrayList<LocalDateTime>();
+    for (; count == null || index < count; index++) {
+      var start = first.plus(index * interval, unit);
+      if (!start.isBefore(to) || (until != null && start.isAfter(until))) {
+        break;
+      }
+      if (!start.isBefore(from) && !exceptions.contains(start)) {
+        starts.add(start);
+      }
+    }
+    return starts;
+  }
+
+  /**
+   * Start of the last occurrence of a series first starting at {@code first}, {@code null} if the series has neither a
+   * count nor an until date. Exceptions are ignored, so the result is an upper bound when they remove the last
+   * occurrences.
+   */
+  public LocalDateTime lastStart(LocalDateTime first) {
+    if (count == null && until == null) {
+      return null;
+    }
+    if (until != null && until.isBefore(first)) {
+      return first;
+    }
+    var unit = frequency.unit();
+    var last = count == null ? Long.MAX_VALUE : count - 1L;
+    if (until != null) {
+      var index = unit.between(first, until) / interval;
+      // Month arithmetic clamps to the end of shorter months, which can fit one more occurrence before until.
+      while (index < last && !first.plus((index + 1) * interval, unit).isAfter(until)) {
+        index++;
+      }
+      last = Math.min(last, index);
+    }
+    return first.plus(last * interval, unit);
+  }
+
+  public enum Frequency {
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS);
+
+    private final ChronoUnit unit;
+
+    Frequency(ChronoUnit unit) {
+      this.unit = unit;
+    }
+
+    ChronoUnit unit() {
+      return unit;
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package se.kry.springboot.demo.handson.domain;
+
+import lombok.Getter;
+
+public class PageTooDeepException extends IllegalArgumentException {
+
+  @Getter
+  private final long end;
+  @Getter
+  private final int maxEnd;
+
+  public PageTooDeepException(long end, int maxEnd) {
+    this.end = end;
+    this.maxEnd = maxEnd;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format("Page ending at %d exceeds the maximum of %d", end, maxEnd);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,54 @@
+package se.kry.springboot.demo.handson.domain;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Some of the fields of an {@link EventResponse}, serialized as an object with only these fields. The values are taken
+ * as they come from the query, any value past the fields is ignored.
+ */
+@JsonSerialize(using = PartialEventResponse.Serializer.class)
+public record PartialEventResponse(List<EventField> fields, Object[] values) {
+
+  public Object get(EventField field) {
+    var i = fields.indexOf(field);
+    return i < 0 ? null : values[i];
+  }
+
+  /**
+   * Writes the fields with names encoded once and for all, instead of going through a map per event.
+   */
+  public static class Serializer extends StdSerializer<PartialEventResponse> {
+
+    private static final Map<EventField, SerializableString> NAMES = new EnumMap<>(EventField.class);
+
+    static {
+      for (var field : EventField.values()) {
+        NAMES.put(field, new SerializedString(field.component()));
+      }
+    }
+
+    public Serializer() {
+      super(PartialEventResponse.class);
+    }
+
+    @Override
+    public void serialize(PartialEventResponse value, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      generator.writeStartObject(value);
+      for (int i = 0; i < value.fields().size(); i++) {
+        generator.writeFieldName(NAMES.get(value.fields().get(i)));
+        provider.defaultSerializeValue(value.values()[i], generator);
+      }
+      generator.writeEndObject();
+    }
+  }
+}
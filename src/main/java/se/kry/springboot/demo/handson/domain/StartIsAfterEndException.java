@@ -11,8 +11,18 @@ public class StartIsAfterEndException extends IllegalArgumentException {
   private final LocalDateTime end;
 
   public StartIsAfterEndException(LocalDateTime start, LocalDateTime end) {
-    super(String.format("Start %s is after end %s", start, end));
     this.start = start;
     this.end = end;
   }
+
+  @Override
+  public String getMessage() {
+    return String.format("Start %s is after end %s", start, end);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    // Thrown on bad client input and mapped to a 400, the stack trace is never looked at.
+    return this;
+  }
 }
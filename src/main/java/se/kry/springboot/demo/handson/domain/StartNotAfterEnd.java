@@ -0,0 +1,57 @@
+package se.kry.springboot.demo.handson.domain;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.Payload;
+
+/**
+ * Reports a request whose start is after its end as a constraint violation, so that a rejected request costs a
+ * validation pass instead of an exception thrown from within JSON deserialization.
+ */
+@Documented
+@Constraint(validatedBy = {
+    StartNotAfterEnd.CreationRequestValidator.class,
+    StartNotAfterEnd.UpdateRequestValidator.class})
+@Target(TYPE)
+@Retention(RUNTIME)
+public @interface StartNotAfterEnd {
+
+  String message() default "start must not be after end";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+
+  class CreationRequestValidator implements ConstraintValidator<StartNotAfterEnd, EventCreationRequest> {
+
+    @Override
+    public boolean isValid(EventCreationRequest value, ConstraintValidatorContext context) {
+      return value == null || isNotAfter(value.start(), value.end());
+    }
+
+    static boolean isNotAfter(LocalDateTime start, LocalDateTime end) {
+      return start == null || end == null || !start.isAfter(end);
+    }
+  }
+
+  class UpdateRequestValidator implements ConstraintValidator<StartNotAfterEnd, EventUpdateRequest> {
+
+    @Override
+    public boolean isValid(EventUpdateRequest value, ConstraintValidatorContext context) {
+      return value == null || CreationRequestValidator.isNotAfter(orNull(value.start()), orNull(value.end()));
+    }
+
+    private static LocalDateTime orNull(Optional<LocalDateTime> value) {
+      return value == null ? null : value.orElse(null);
+    }
+  }
+}
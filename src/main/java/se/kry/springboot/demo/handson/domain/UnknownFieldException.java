@@ -0,0 +1,23 @@
+package se.kry.springboot.demo.handson.domain;
+
+import lombok.Getter;
+
+public class UnknownFieldException extends IllegalArgumentException {
+
+  @Getter
+  private final String field;
+
+  public UnknownFieldException(String field) {
+    this.field = field;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format("Unknown field '%s'", field);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
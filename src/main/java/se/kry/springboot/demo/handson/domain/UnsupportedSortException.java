@@ -0,0 +1,23 @@
+package se.kry.springboot.demo.handson.domain;
+
+import lombok.Getter;
+
+public class UnsupportedSortException extends IllegalArgumentException {
+
+  @Getter
+  private final String property;
+
+  public UnsupportedSortException(String property) {
+    this.property = property;
+  }
+
+  @Override
+  public String getMessage() {
+    return String.format("Cannot sort by '%s'", property);
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
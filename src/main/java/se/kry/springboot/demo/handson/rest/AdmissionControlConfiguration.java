@@ -0,0 +1,53 @@
+package se.kry.springboot.demo.handson.rest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AdmissionControlProperties.class)
+class AdmissionControlConfiguration {
+
+  @Bean
+  FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(AdmissionControlProperties properties,
+                                                                        MeterRegistry registry) {
+    var reads = limiter(properties.read(), "read", registry);
+    var writes = limiter(properties.write(), "write", registry);
+
+    var registration =
+        new FilterRegistrationBean<>(new AdmissionControlFilter(reads, writes, properties.retryAfter(), registry));
+    registration.addUrlPatterns("/api/v1/events", "/api/v1/events/*");
+    return registration;
+  }
+
+  private static AimdLimiter limiter(AdmissionControlProperties.Limit settings, String kind, MeterRegistry registry) {
+    var limiter = new AimdLimiter(settings);
+    Gauge.builder("events.admission.limit", limiter, AimdLimiter::limit).tag("kind", kind).register(registry);
+    Gauge.builder("events.admission.in.flight", limiter, AimdLimiter::inFlight).tag("kind", kind).register(registry);
+    Gauge.builder("events.admission.waiting", limiter, AimdLimiter::waiting).tag("kind", kind).register(registry);
+    return limiter;
+  }
+
+  /**
+   * Requests served before the instance is ready, like those of the {@link EventsWarmUp}, ran through cold code and
+   * must not leave the limits lowered for real traffic.
+   */
+  @Bean
+  ApplicationListener<AvailabilityChangeEvent<ReadinessState>> admissionControlReset(
+      FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter) {
+    return new ApplicationListener<AvailabilityChangeEvent<ReadinessState>>() {
+      @Override
+      public void onApplicationEvent(AvailabilityChangeEvent<ReadinessState> event) {
+        if (event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+          admissionControlFilter.getFilter().reset();
+        }
+      }
+    };
+  }
+}
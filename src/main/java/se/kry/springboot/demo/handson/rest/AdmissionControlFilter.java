@@ -0,0 +1,74 @@
+package se.kry.springboot.demo.handson.rest;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Sheds load with a 503 and a {@code Retry-After} header once the read or write limiter is saturated.
+ */
+class AdmissionControlFilter extends OncePerRequestFilter {
+
+  private final AimdLimiter reads;
+  private final AimdLimiter writes;
+  private final String retryAfter;
+  private final Counter readRejections;
+  private final Counter writeRejections;
+
+  AdmissionControlFilter(AimdLimiter reads, AimdLimiter writes, Duration retryAfter, MeterRegistry registry) {
+    this.reads = reads;
+    this.writes = writes;
+    this.retryAfter = Long.toString(Math.max(1L, (retryAfter.toMillis() + 999L) / 1000L));
+    this.readRejections = registry.counter("events.admission.rejected", "kind", "read");
+    this.writeRejections = registry.counter("events.admission.rejected", "kind", "write");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    var write = isWrite(request);
+    var limiter = write ? writes : reads;
+
+    if (!admit(limiter)) {
+      (write ? writeRejections : readRejections).increment();
+      response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+      response.setHeader(HttpHeaders.RETRY_AFTER, retryAfter);
+      return;
+    }
+
+    var start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      limiter.release(Duration.ofNanos(System.nanoTime() - start));
+    }
+  }
+
+  void reset() {
+    reads.reset();
+    writes.reset();
+  }
+
+  private static boolean admit(AimdLimiter limiter) {
+    try {
+      return limiter.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static boolean isWrite(HttpServletRequest request) {
+    var method = HttpMethod.resolve(request.getMethod());
+    return method != HttpMethod.GET && method != HttpMethod.HEAD && method != HttpMethod.OPTIONS;
+  }
+}
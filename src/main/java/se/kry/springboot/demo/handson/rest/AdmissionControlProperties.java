@@ -0,0 +1,24 @@
+package se.kry.springboot.demo.handson.rest;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConstructorBinding
+@ConfigurationProperties("events.admission")
+public record AdmissionControlProperties(
+    @DefaultValue Limit read,
+    @DefaultValue Limit write,
+    @DefaultValue("1s") Duration retryAfter) {
+
+  public record Limit(
+      @DefaultValue("20") int initialLimit,
+      @DefaultValue("1") int minLimit,
+      @DefaultValue("200") int maxLimit,
+      @DefaultValue("50") int maxQueue,
+      @DefaultValue("100ms") Duration maxWait,
+      @DefaultValue("250ms") Duration latencyThreshold,
+      @DefaultValue("0.9") double backoffRatio) {
+  }
+}
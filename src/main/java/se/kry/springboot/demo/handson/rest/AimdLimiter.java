@@ -0,0 +1,136 @@
+package se.kry.springboot.demo.handson.rest;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits in-flight requests with a bounded wait queue. The limit grows by roughly one per round-trip while requests
+ * complete under the latency threshold and the limiter is busy or had to queue or reject requests, and shrinks
+ * multiplicatively as soon as one does not. Slow requests that started before the last cut were admitted under the
+ * previous limit, so they do not cut it again.
+ */
+class AimdLimiter {
+
+  private final Lock lock = new ReentrantLock();
+  private final Condition released = lock.newCondition();
+  private final AdmissionControlProperties.Limit settings;
+  private final LongSupplier nanoTime;
+
+  private double limit;
+  private int inFlight;
+  private int waiting;
+  private boolean saturated;
+  private boolean backedOff;
+  private long backedOffAt;
+
+  AimdLimiter(AdmissionControlProperties.Limit settings) {
+    this(settings, System::nanoTime);
+  }
+
+  AimdLimiter(AdmissionControlProperties.Limit settings, LongSupplier nanoTime) {
+    this.settings = settings;
+    this.nanoTime = nanoTime;
+    this.limit = settings.initialLimit();
+  }
+
+  /**
+   * @return {@code true} if the caller was admitted and must call {@link #release(Duration)} when done
+   */
+  boolean acquire() throws InterruptedException {
+    lock.lock();
+    try {
+      if (inFlight < (int) limit) {
+        inFlight++;
+        return true;
+      }
+      saturated = true;
+      if (waiting >= settings.maxQueue()) {
+        return false;
+      }
+      waiting++;
+      try {
+        var nanos = settings.maxWait().toNanos();
+        while (inFlight >= (int) limit) {
+          if (nanos <= 0L) {
+            return false;
+          }
+          nanos = released.awaitNanos(nanos);
+        }
+        inFlight++;
+        return true;
+      } finally {
+        waiting--;
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void release(Duration latency) {
+    lock.lock();
+    try {
+      var busy = inFlight * 2 >= (int) limit;
+      inFlight--;
+      if (latency.compareTo(settings.latencyThreshold()) > 0) {
+        var now = nanoTime.getAsLong();
+        if (!backedOff || now - latency.toNanos() - backedOffAt >= 0L) {
+          limit = Math.max(settings.minLimit(), limit * settings.backoffRatio());
+          backedOff = true;
+          backedOffAt = now;
+          saturated = false;
+        }
+      } else if (busy || saturated) {
+        limit = Math.min(settings.maxLimit(), limit + 1.0 / limit);
+        saturated = false;
+      }
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Goes back to the initial limit, forgetting what the requests so far taught it.
+   */
+  void reset() {
+    lock.lock();
+    try {
+      limit = settings.initialLimit();
+      saturated = false;
+      backedOff = false;
+      released.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int limit() {
+    lock.lock();
+    try {
+      return (int) limit;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int inFlight() {
+    lock.lock();
+    try {
+      return inFlight;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int waiting() {
+    lock.lock();
+    try {
+      return waiting;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
@@ -1,9 +1,12 @@
 package se.kry.springboot.demo.handson.rest;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 import javax.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,11 +15,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
+import se.kry.springboot.demo.handson.domain.EventBatchResponse;
 import se.kry.springboot.demo.handson.domain.EventCreationRequest;
 import se.kry.springboot.demo.handson.domain.EventResponse;
 import se.kry.springboot.demo.handson.domain.EventUpdateRequest;
+import se.kry.springboot.demo.handson.domain.PartialEventResponse;
 import se.kry.springboot.demo.handson.services.EventService;
 
 @RestController
@@ -37,11 +43,47 @@ public class EventsController {
     return ResponseEntity.created(location).body(event);
   }
 
-  @GetMapping
+  // Every combination of listing parameters maps to exactly one handler, the others match none and are answered with a
+  // 400 instead of silently ignoring a parameter.
+
+  @GetMapping(params = {"!ids", "!from", "!to"})
   Page<EventResponse> readEvents(Pageable pageable) {
     return service.getEvents(pageable);
   }
 
+  @GetMapping(params = {"fields", "!ids", "!from", "!to"})
+  Page<PartialEventResponse> readEventsWithFields(Pageable pageable, @RequestParam String fields) {
+    return service.getEvents(fields, pageable);
+  }
+
+  @GetMapping(params = {"from", "to", "!ids"})
+  Page<EventResponse> readEventsBetween(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      Pageable pageable) {
+    return service.getEvents(from, to, pageable);
+  }
+
+  @GetMapping(params = {"from", "to", "fields", "!ids"})
+  Page<PartialEventResponse> readEventsBetweenWithFields(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam String fields,
+      Pageable pageable) {
+    return service.getEvents(from, to, fields, pageable);
+  }
+
+  @GetMapping(params = {"ids", "!from", "!to"})
+  EventBatchResponse<EventResponse> readEventsById(@RequestParam List<UUID> ids) {
+    return service.getEvents(ids);
+  }
+
+  @GetMapping(params = {"ids", "fields", "!from", "!to"})
+  EventBatchResponse<PartialEventResponse> readEventsByIdWithFields(@RequestParam List<UUID> ids,
+                                                                  @RequestParam String fields) {
+    return service.getEvents(ids, fields);
+  }
+
   @GetMapping("{id}")
   ResponseEntity<EventResponse> readEvent(@PathVariable UUID id) {
     return service.getEvent(id)
@@ -49,6 +91,13 @@ public class EventsController {
         .orElseGet(() -> ResponseEntity.notFound().build());
   }
 
+  @GetMapping(path = "{id}", params = "fields")
+  ResponseEntity<PartialEventResponse> readEventWithFields(@PathVariable UUID id, @RequestParam String fields) {
+    return service.getEvent(id, fields)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> ResponseEntity.notFound().build());
+  }
+
   @PatchMapping("{id}")
   ResponseEntity<EventResponse> updateEvent(
       @PathVariable UUID id,
@@ -59,7 +108,7 @@ public class EventsController {
   }
 
   @DeleteMapping("{id}")
-  void deleteEvent(@PathVariable UUID id) {
-    service.deleteEvent(id);
+  ResponseEntity<Void> deleteEvent(@PathVariable UUID id) {
+    return service.deleteEvent(id) ? ResponseEntity.ok().build() : ResponseEntity.notFound().build();
   }
 }
@@ -0,0 +1,146 @@
+package se.kry.springboot.demo.handson.rest;
+
+import java.util.List;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.UnsatisfiedServletRequestParameterException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+import se.kry.springboot.demo.handson.domain.BatchTooLargeException;
+import se.kry.springboot.demo.handson.domain.EventArchivedException;
+import se.kry.springboot.demo.handson.domain.PageTooDeepException;
+import se.kry.springboot.demo.handson.domain.StartIsAfterEndException;
+import se.kry.springboot.demo.handson.domain.UnknownFieldException;
+import se.kry.springboot.demo.handson.domain.UnsupportedSortException;
+
+@RestControllerAdvice
+class EventsExceptionHandler extends ResponseEntityExceptionHandler {
+
+  @ExceptionHandler(StartIsAfterEndException.class)
+  ResponseEntity<Object> handleStartIsAfterEnd(StartIsAfterEndException ex) {
+    return problem(HttpStatus.BAD_REQUEST, "Invalid event",
+        List.of(new Problem.Violation("start", ex.getMessage())));
+  }
+
+  @ExceptionHandler(BatchTooLargeException.class)
+  ResponseEntity<Object> handleBatchTooLarge(BatchTooLargeException ex) {
+    return problem(HttpStatus.BAD_REQUEST, "Invalid batch",
+        List.of(new Problem.Violation("ids", ex.getMessage())));
+  }
+
+  @ExceptionHandler(UnknownFieldException.class)
+  ResponseEntity<Object> handleUnknownField(UnknownFieldException ex) {
+    return problem(HttpStatus.BAD_REQUEST, "Invalid fields",
+        List.of(new Problem.Violation("fields", ex.getMessage())));
+  }
+
+  @ExceptionHandler(UnsupportedSortException.class)
+  ResponseEntity<Object> handleUnsupportedSort(UnsupportedSortException ex) {
+    return problem(HttpStatus.BAD_REQUEST, "Invalid sort",
+        List.of(new Problem.Violation("sort", ex.getMessage())));
+  }
+
+  @ExceptionHandler(PageTooDeepException.class)
+  ResponseEntity<Object> handlePageTooDeep(PageTooDeepException ex) {
+    return problem(HttpStatus.BAD_REQUEST, "Invalid page",
+        List.of(new Problem.Violation("page", ex.getMessage())));
+  }
+
+  @ExceptionHandler(EventArchivedException.class)
+  ResponseEntity<Object> handleEventArchived(EventArchivedException ex) {
+    return problem(HttpStatus.CONFLICT, ex.getMessage(), List.of());
+  }
+
+  @Override
+  protected ResponseEntity<Object> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
+                                                                HttpHeaders headers, HttpStatus status,
+                                                                WebRequest request) {
+    var violations = ex.getBindingResult().getAllErrors().stream()
+        .map(EventsExceptionHandler::violationFromError)
+        .toList();
+    return problem(status, "Invalid event", violations);
+  }
+
+  @Override
+  protected ResponseEntity<Object> handleHttpMessageNotReadable(HttpMessageNotReadableException ex,
+                                                                HttpHeaders headers, HttpStatus status,
+                                                                WebRequest request) {
+    return problem(status, "Malformed request body", List.of());
+  }
+
+  @Override
+  protected ResponseEntity<Object> handleMissingServletRequestParameter(MissingServletRequestParameterException ex,
+                                                                       HttpHeaders headers, HttpStatus status,
+                                                                       WebRequest request) {
+    return problem(status, "Missing request parameter",
+        List.of(new Problem.Violation(ex.getParameterName(), "must be present")));
+  }
+
+  @Override
+  protected ResponseEntity<Object> handleServletRequestBindingException(ServletRequestBindingException ex,
+                                                                        HttpHeaders headers, HttpStatus status,
+                                                                        WebRequest request) {
+    if (ex instanceof UnsatisfiedServletRequestParameterException) {
+      return problem(status, "Unsupported combination of request parameters", List.of());
+    }
+    return super.handleServletRequestBindingException(ex, headers, status, request);
+  }
+
+  @Override
+  protected ResponseEntity<Object> handleTypeMismatch(TypeMismatchException ex, HttpHeaders headers,
+                                                      HttpStatus status, WebRequest request) {
+    var field = ex instanceof MethodArgumentTypeMismatchException mismatch ? mismatch.getName() : ex.getPropertyName();
+    return problem(status, "Invalid request parameter",
+        List.of(new Problem.Violation(field, String.format("invalid value '%s'", ex.getValue()))));
+  }
+
+  /**
+   * Gives a problem body to the remaining client errors handled by {@link ResponseEntityExceptionHandler}, except
+   * 406 whose client does not accept it. The detail only depends on the status, exception messages come from parsers
+   * and converters and are not meant for clients.
+   */
+  @Override
+  protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body, HttpHeaders headers,
+                                                           HttpStatus status, WebRequest request) {
+    if (body != null || !status.is4xxClientError() || status == HttpStatus.NOT_ACCEPTABLE) {
+      return super.handleExceptionInternal(ex, body, headers, status, request);
+    }
+    var problemHeaders = new HttpHeaders();
+    problemHeaders.putAll(headers);
+    problemHeaders.setContentType(MediaType.APPLICATION_PROBLEM_JSON);
+    return super.handleExceptionInternal(ex, new Problem(status.getReasonPhrase(), status.value(), detail(status),
+        List.of()), problemHeaders, status, request);
+  }
+
+  private static String detail(HttpStatus status) {
+    return switch (status) {
+      case NOT_FOUND -> "No such resource";
+      case METHOD_NOT_ALLOWED -> "Request method not supported by this resource";
+      case UNSUPPORTED_MEDIA_TYPE -> "Content type not supported by this resource";
+      default -> "Invalid request";
+    };
+  }
+
+  private static Problem.Violation violationFromError(ObjectError error) {
+    var field = error instanceof FieldError fieldError ? fieldError.getField() : null;
+    return new Problem.Violation(field, error.getDefaultMessage());
+  }
+
+  private static ResponseEntity<Object> problem(HttpStatus status, String detail, List<Problem.Violation> violations) {
+    return ResponseEntity.status(status)
+        .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+        .body(new Problem(status.getReasonPhrase(), status.value(), detail, violations));
+  }
+}
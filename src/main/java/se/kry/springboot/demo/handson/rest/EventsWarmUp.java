@@ -0,0 +1,183 @@
+package se.kry.springboot.demo.handson.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.util.UriComponentsBuilder;
+import se.kry.springboot.demo.handson.domain.EventCreationRequest;
+import se.kry.springboot.demo.handson.domain.EventUpdateRequest;
+import se.kry.springboot.demo.handson.services.EventService;
+
+/**
+ * Warms up the request path before the instance reports itself ready, so that real traffic does not pay for cold code
+ * from the filters and the {@code DispatcherServlet} down to the repository. Spring Boot only switches readiness to
+ * {@link ReadinessState#ACCEPTING_TRAFFIC} once all application runners have returned.
+ *
+ * <p>Every iteration sends the local server requests that store nothing: a rejected creation, reads and listings, and
+ * an update and a deletion of an unknown event. The write path below the controller is run in process against
+ * {@link ScratchWrites}, and left out of the latency the warm-up waits on since it may wait for the disk. A failure
+ * only ends the warm-up early, the instance still becomes ready.
+ */
+@Slf4j
+class EventsWarmUp implements ApplicationRunner {
+
+  private static final LocalDateTime START = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+  private static final Pageable LISTING = PageRequest.ofSize(20);
+
+  private final ApplicationContext context;
+  private final ServerProperties server;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher publisher;
+  private final WarmUpProperties properties;
+  private final ScratchWrites.Opener scratch;
+  private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+  EventsWarmUp(ApplicationContext context, ServerProperties server, ObjectMapper objectMapper,
+               ApplicationEventPublisher publisher, WarmUpProperties properties, ScratchWrites.Opener scratch) {
+    this.context = context;
+    this.server = server;
+    this.objectMapper = objectMapper;
+    this.publisher = publisher;
+    this.properties = properties;
+    this.scratch = scratch;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    var port = context instanceof WebServerApplicationContext web && web.getWebServer() != null
+        ? web.getWebServer().getPort()
+        : -1;
+    if (port <= 0) {
+      log.info("Skipping warm-up, there is no local server");
+      return;
+    }
+    var events = eventsUri(port);
+
+    AvailabilityChangeEvent.publish(publisher, this, ReadinessState.REFUSING_TRAFFIC);
+
+    var latencies = new long[properties.window()];
+    var target = properties.latencyTarget().toNanos() * latencies.length;
+    var total = 0L;
+    var iterations = 0;
+    try (var writes = scratch.open()) {
+      while (iterations < properties.maxIterations()) {
+        var started = System.nanoTime();
+        iterate(events);
+        var latency = System.nanoTime() - started;
+        writes.run(this::write);
+
+        var slot = iterations++ % latencies.length;
+        total += latency - latencies[slot];
+        latencies[slot] = latency;
+        if (iterations >= latencies.length && total <= target) {
+          log.info("Warmed up in {} iterations, averaging {}", iterations, Duration.ofNanos(total / latencies.length));
+          return;
+        }
+      }
+      log.warn("Stopped warming up after {} iterations, averaging {} against a target of {}", iterations,
+          Duration.ofNanos(total / Math.min(iterations, latencies.length)), properties.latencyTarget());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Interrupted while warming up, after {} iterations", iterations);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Stopped warming up after {} iterations", iterations, e);
+    }
+  }
+
+  private URI eventsUri(int port) {
+    var ssl = server.getSsl() != null && server.getSsl().isEnabled();
+    return UriComponentsBuilder.newInstance()
+        .scheme(ssl ? "https" : "http")
+        .host(host())
+        .port(port)
+        .path(Optional.ofNullable(server.getServlet().getContextPath()).orElse(""))
+        .path("/api/v1/events")
+        .build()
+        .toUri();
+  }
+
+  private String host() {
+    var address = server.getAddress();
+    if (address == null || address.isAnyLocalAddress()) {
+      return "localhost";
+    }
+    return address instanceof Inet6Address ? "[" + address.getHostAddress() + "]" : address.getHostAddress();
+  }
+
+  private void iterate(URI events) throws IOException, InterruptedException {
+    // Binding and validation of a creation, which is rejected.
+    send("POST", events, json(START.plusHours(1), START), HttpStatus.BAD_REQUEST);
+    var unknown = URI.create(events + "/" + UUID.randomUUID());
+    send("GET", unknown, null, HttpStatus.NOT_FOUND);
+    send("GET", URI.create(events + "?size=20"), null, HttpStatus.OK);
+    send("GET", URI.create(events + "?size=20&fields=id,title"), null, HttpStatus.OK);
+    send("PATCH", unknown, objectMapper.createObjectNode()
+        .put("title", "Warmed up")
+        .put("end", START.plusHours(2).toString())
+        .toString(), HttpStatus.NOT_FOUND);
+    send("DELETE", unknown, null, HttpStatus.NOT_FOUND);
+  }
+
+  /**
+   * The listings make a transaction flush the writes before them, so that their SQL is warmed up as well.
+   */
+  private void write(EventService service) {
+    var created = service.createEvent(new EventCreationRequest("Warm-up", START, START.plusHours(1), null));
+    service.getEvent(created.id());
+    service.getEvents(LISTING);
+    service.updateEvent(created.id(), new EventUpdateRequest(Optional.of("Warmed up"), Optional.empty(),
+        Optional.of(START.plusHours(2)), Optional.empty()));
+    service.getEvents(LISTING);
+    service.deleteEvent(created.id());
+    service.getEvents(LISTING);
+  }
+
+  private String json(LocalDateTime start, LocalDateTime end) {
+    return objectMapper.createObjectNode()
+        .put("title", "Warm-up")
+        .put("start", start.toString())
+        .put("end", end.toString())
+        .toString();
+  }
+
+  private void send(String method, URI uri, String json, HttpStatus expected)
+      throws IOException, InterruptedException {
+    BodyPublisher body = json == null ? BodyPublishers.noBody() : BodyPublishers.ofString(json);
+    var request = HttpRequest.newBuilder(uri).method(method, body);
+    if (json != null) {
+      request.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+    }
+    var response = client.send(request.build(), BodyHandlers.discarding());
+    if (response.statusCode() != expected.value()) {
+      throw new IOException(String.format("Warm-up %s %s answered %d instead of %d", method, uri,
+          response.statusCode(), expected.value()));
+    }
+  }
+}
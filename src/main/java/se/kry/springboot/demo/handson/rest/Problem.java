@@ -0,0 +1,12 @@
+package se.kry.springboot.demo.handson.rest;
+
+import java.util.List;
+
+/**
+ * Body of an {@code application/problem+json} response, see RFC 7807.
+ */
+record Problem(String title, int status, String detail, List<Violation> violations) {
+
+  record Violation(String field, String message) {
+  }
+}
@@ -0,0 +1,28 @@
+package se.kry.springboot.demo.handson.rest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+import se.kry.springboot.demo.handson.services.EventService;
+
+/**
+ * Where the {@link EventsWarmUp} exercises the write path of the {@link EventService}, without anything it writes ever
+ * becoming visible to clients.
+ */
+@FunctionalInterface
+interface ScratchWrites extends Closeable {
+
+  /**
+   * Runs the writes against a service whose changes are all thrown away.
+   */
+  void run(Consumer<EventService> writes);
+
+  @Override
+  default void close() throws IOException {
+  }
+
+  @FunctionalInterface
+  interface Opener {
+    ScratchWrites open() throws IOException;
+  }
+}
@@ -0,0 +1,71 @@
+package se.kry.springboot.demo.handson.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Consumer;
+import javax.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.kry.springboot.demo.handson.data.LogStoreProperties;
+import se.kry.springboot.demo.handson.data.ScratchEventRepository;
+import se.kry.springboot.demo.handson.services.EventCounter;
+import se.kry.springboot.demo.handson.services.EventProjections;
+import se.kry.springboot.demo.handson.services.EventService;
+
+@Configuration
+@ConditionalOnProperty(prefix = "events.warm-up", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(WarmUpProperties.class)
+class WarmUpConfiguration {
+
+  /**
+   * Writes through the service in a transaction that is rolled back, so that no other client ever sees them.
+   */
+  @Bean
+  @Profile("!log-store")
+  EventsWarmUp eventsWarmUp(ApplicationContext context, ServerProperties server, ObjectMapper objectMapper,
+                            ApplicationEventPublisher publisher, WarmUpProperties properties, EventService service,
+                            PlatformTransactionManager transactionManager) {
+    var transaction = new TransactionTemplate(transactionManager);
+    ScratchWrites rolledBack = writes -> transaction.executeWithoutResult(status -> {
+      status.setRollbackOnly();
+      writes.accept(service);
+    });
+    return new EventsWarmUp(context, server, objectMapper, publisher, properties, () -> rolledBack);
+  }
+
+  /**
+   * Writes through a service of its own over a throwaway log, since the log store cannot roll anything back.
+   */
+  @Bean
+  @Profile("log-store")
+  EventsWarmUp logStoreWarmUp(ApplicationContext context, ServerProperties server, ObjectMapper objectMapper,
+                              ApplicationEventPublisher publisher, WarmUpProperties properties,
+                              LogStoreProperties logStore, Validator validator, EventProjections projections) {
+    return new EventsWarmUp(context, server, objectMapper, publisher, properties, () -> {
+      var repository = ScratchEventRepository.open(logStore.groupCommitInterval(), validator);
+      var service = new EventService(repository, Optional.empty(),
+          new EventCounter(repository, new SimpleMeterRegistry()), projections);
+      return new ScratchWrites() {
+        @Override
+        public void run(Consumer<EventService> writes) {
+          writes.accept(service);
+        }
+
+        @Override
+        public void close() throws IOException {
+          repository.close();
+        }
+      };
+    });
+  }
+}
@@ -0,0 +1,18 @@
+package se.kry.springboot.demo.handson.rest;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link EventsWarmUp}: it stops once the average latency of the last {@code window} iterations is
+ * at most {@code latencyTarget}, or after {@code maxIterations}. Disabled with {@code events.warm-up.enabled=false}.
+ */
+@ConstructorBinding
+@ConfigurationProperties("events.warm-up")
+public record WarmUpProperties(
+    @DefaultValue("50") int window,
+    @DefaultValue("5ms") Duration latencyTarget,
+    @DefaultValue("2000") int maxIterations) {
+}
@@ -0,0 +1,18 @@
+package se.kry.springboot.demo.handson.services;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link EventArchiver}, which runs every {@code events.archive.interval} (ISO-8601, default
+ * {@code PT1H}) unless {@code events.archive.enabled} is {@code false}.
+ */
+@ConstructorBinding
+@ConfigurationProperties("events.archive")
+public record EventArchiveProperties(
+    @DefaultValue("365d") Duration retention,
+    @DefaultValue("500") int chunkSize,
+    @DefaultValue("50ms") Duration pause) {
+}
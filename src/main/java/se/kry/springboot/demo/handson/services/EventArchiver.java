@@ -0,0 +1,145 @@
+package se.kry.springboot.demo.handson.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.kry.springboot.demo.handson.data.ArchivedEvent;
+import se.kry.springboot.demo.handson.data.ArchivedEventRepository;
+import se.kry.springboot.demo.handson.data.Event;
+import se.kry.springboot.demo.handson.data.EventRepository;
+
+/**
+ * Moves events and series whose last occurrence ended more than the retention period ago into the archive, one short
+ * transaction per chunk of events in id order, pausing between chunks to leave room for foreground traffic.
+ *
+ * <p>Runs on its own thread, so that the pauses do not hold up the other scheduled jobs. Events are removed one by one
+ * through the entity manager, so that only their own entries are evicted from the second-level cache.
+ */
+@Slf4j
+public class EventArchiver {
+
+  private final EventRepository repository;
+  private final ArchivedEventRepository archivedRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final EventArchiveProperties properties;
+  private final EventCounter counter;
+  private final ExecutorService executor;
+  private final Counter moved;
+  private final AtomicBoolean running = new AtomicBoolean();
+
+  private volatile double rowsPerSecond;
+  private volatile boolean closed;
+
+  public EventArchiver(EventRepository repository, ArchivedEventRepository archivedRepository,
+                       TransactionTemplate transactionTemplate, EventArchiveProperties properties,
+                       EventCounter counter, ExecutorService executor, MeterRegistry registry) {
+    this.repository = repository;
+    this.archivedRepository = archivedRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.properties = properties;
+    this.counter = counter;
+    this.executor = executor;
+    this.moved = registry.counter("events.archive.moved");
+    Gauge.builder("events.archive.throughput", this, archiver -> archiver.rowsPerSecond)
+        .baseUnit("rows/s")
+        .register(registry);
+  }
+
+  @Scheduled(initialDelayString = "${events.archive.interval:PT1H}",
+      fixedDelayString = "${events.archive.interval:PT1H}")
+  public void archive() {
+    if (!running.compareAndSet(false, true)) {
+      log.info("Skipping archival, the previous one is still running");
+      return;
+    }
+    executor.execute(() -> {
+      try {
+        var count = archiveEndedBefore(LocalDateTime.now().minus(properties.retention()));
+        if (count > 0) {
+          log.info("Archived {} events", count);
+        }
+      } finally {
+        running.set(false);
+      }
+    });
+  }
+
+  /**
+   * Stops after the chunk being moved, if any.
+   */
+  public void close() {
+    closed = true;
+    executor.shutdown();
+  }
+
+  int archiveEndedBefore(LocalDateTime cutoff) {
+    var started = System.nanoTime();
+    var total = 0;
+    UUID after = null;
+
+    while (true) {
+      var lastId = after;
+      var chunk = transactionTemplate.execute(status -> moveChunk(cutoff, lastId));
+      if (chunk == null || chunk.isEmpty()) {
+        break;
+      }
+      total += chunk.size();
+      moved.increment(chunk.size());
+      after = chunk.get(chunk.size() - 1);
+
+      if (chunk.size() < properties.chunkSize() || closed || !pause()) {
+        break;
+      }
+    }
+
+    var elapsed = System.nanoTime() - started;
+    rowsPerSecond = elapsed > 0L ? total * 1e9 / elapsed : 0.0;
+    return total;
+  }
+
+  private List<UUID> moveChunk(LocalDateTime cutoff, UUID after) {
+    var pageable = Pageable.ofSize(properties.chunkSize());
+    var chunk = after == null
+        ? repository.findByLastEndBeforeOrderByIdAsc(cutoff, pageable)
+        : repository.findByLastEndBeforeAndIdGreaterThanOrderByIdAsc(cutoff, after, pageable);
+    if (chunk.isEmpty()) {
+      return List.of();
+    }
+
+    var archivedAt = LocalDateTime.now();
+    archivedRepository.saveAll(chunk.stream().map(event -> archivedEventFromEvent(event, archivedAt)).toList());
+    chunk.forEach(repository::delete);
+    counter.add(-chunk.size());
+    return chunk.stream().map(Event::getId).toList();
+  }
+
+  private boolean pause() {
+    try {
+      Thread.sleep(properties.pause().toMillis());
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private static ArchivedEvent archivedEventFromEvent(Event event, LocalDateTime archivedAt) {
+    return new ArchivedEvent()
+        .setId(event.getId())
+        .setTitle(event.getTitle())
+        .setStart(event.getStart())
+        .setEnd(event.getEnd())
+        .setRecurrence(event.getRecurrence())
+        .setLastEnd(event.getLastEnd())
+        .setArchivedAt(archivedAt);
+  }
+}
@@ -0,0 +1,30 @@
+package se.kry.springboot.demo.handson.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.kry.springboot.demo.handson.data.ArchivedEventRepository;
+import se.kry.springboot.demo.handson.data.EventRepository;
+
+// The log store has neither an archive table nor transactions spanning both stores.
+@Configuration
+@Profile("!log-store")
+@ConditionalOnProperty(prefix = "events.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(EventArchiveProperties.class)
+class EventArchiverConfiguration {
+
+  @Bean(destroyMethod = "close")
+  EventArchiver eventArchiver(EventRepository repository, ArchivedEventRepository archivedRepository,
+                              PlatformTransactionManager transactionManager, EventArchiveProperties properties,
+                              EventCounter counter, MeterRegistry registry) {
+    return new EventArchiver(repository, archivedRepository, new TransactionTemplate(transactionManager), properties,
+        counter, Executors.newSingleThreadExecutor(new CustomizableThreadFactory("event-archiver-")), registry);
+  }
+}
@@ -0,0 +1,73 @@
+package se.kry.springboot.demo.handson.services;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import se.kry.springboot.demo.handson.data.EventRepository;
+
+/**
+ * Total number of events, kept up to date by the writes of the {@link EventService} and the {@link EventArchiver} so
+ * that listings do not run a count query. Changes made in a transaction only count once it commits. The total is
+ * reconciled with the repository every {@code events.count.reconcile-interval} (ISO-8601, default {@code PT1M}) to
+ * pick up writes made behind the service's back.
+ *
+ * <p>The total is per node: an instance only sees its own writes right away, those of other instances sharing the
+ * repository are picked up by reconciliation.
+ *
+ * <p>Counting the repository and reading the total are not atomic, so writes committing in between show up as drift.
+ * A drift is therefore only corrected once two consecutive reconciliations observe the same one.
+ */
+@Slf4j
+@Component
+public class EventCounter {
+
+  private final EventRepository repository;
+  private final LongAdder total = new LongAdder();
+
+  // Only accessed by reconciliations, which do not overlap.
+  private long observedDrift;
+
+  public EventCounter(EventRepository repository, MeterRegistry registry) {
+    this.repository = repository;
+    this.total.add(repository.count());
+    Gauge.builder("events.count", total, LongAdder::sum).register(registry);
+  }
+
+  public long count() {
+    return total.sum();
+  }
+
+  void add(long delta) {
+    if (delta == 0L) {
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          total.add(delta);
+        }
+      });
+    } else {
+      total.add(delta);
+    }
+  }
+
+  @Scheduled(initialDelayString = "${events.count.reconcile-interval:PT1M}",
+      fixedDelayString = "${events.count.reconcile-interval:PT1M}")
+  public void reconcile() {
+    var drift = repository.count() - total.sum();
+    if (drift != 0L && drift == observedDrift) {
+      log.info("Correcting event count by {}", drift);
+      total.add(drift);
+      observedDrift = 0L;
+    } else {
+      observedDrift = drift;
+    }
+  }
+}
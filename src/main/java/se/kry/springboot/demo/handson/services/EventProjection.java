@@ -0,0 +1,82 @@
+package se.kry.springboot.demo.handson.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import javax.persistence.Tuple;
+import se.kry.springboot.demo.handson.data.EventSelection;
+import se.kry.springboot.demo.handson.data.Recurrence;
+import se.kry.springboot.demo.handson.domain.EventField;
+import se.kry.springboot.demo.handson.domain.EventRecurrence;
+import se.kry.springboot.demo.handson.domain.EventResponse;
+import se.kry.springboot.demo.handson.domain.PartialEventResponse;
+
+/**
+ * Narrows events down to a combination of {@link EventField}s, both in the query and in the resulting JSON object.
+ * Compiled once per combination by {@link EventProjections}.
+ */
+final class EventProjection {
+
+  private final List<EventField> fields;
+  private final EventSelection selection;
+
+  EventProjection(Set<EventField> fields) {
+    this.fields = List.copyOf(fields);
+    this.selection = EventSelection.of(this.fields.stream().map(EventProjection::attribute).toList());
+  }
+
+  List<EventField> fields() {
+    return fields;
+  }
+
+  EventSelection selection() {
+    return selection;
+  }
+
+  /**
+   * @param tuple the selected attributes, possibly followed by others which are left out of the response
+   */
+  PartialEventResponse fromTuple(Tuple tuple) {
+    var values = tuple.toArray();
+    var recurrence = fields.indexOf(EventField.RECURRENCE);
+    if (recurrence >= 0) {
+      values[recurrence] = EventService.domainFromRecurrence((Recurrence) values[recurrence]);
+    }
+    return new PartialEventResponse(fields, values);
+  }
+
+  PartialEventResponse fromResponse(EventResponse response) {
+    var values = new Object[fields.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = switch (fields.get(i)) {
+        case ID -> response.id();
+        case TITLE -> response.title();
+        case START -> response.start();
+        case END -> response.end();
+        case RECURRENCE -> response.recurrence();
+      };
+    }
+    return new PartialEventResponse(fields, values);
+  }
+
+  /**
+   * @return a response with only the selected fields set, for merging with full responses
+   */
+  EventResponse responseFromTuple(Tuple tuple) {
+    var partial = fromTuple(tuple);
+    return new EventResponse((UUID) partial.get(EventField.ID), (String) partial.get(EventField.TITLE),
+        (LocalDateTime) partial.get(EventField.START), (LocalDateTime) partial.get(EventField.END),
+        (EventRecurrence) partial.get(EventField.RECURRENCE));
+  }
+
+  private static String attribute(EventField field) {
+    return switch (field) {
+      case ID -> "id";
+      case TITLE -> "title";
+      case START -> "start";
+      case END -> "end";
+      case RECURRENCE -> "recurrence";
+    };
+  }
+}
@@ -0,0 +1,39 @@
+package se.kry.springboot.demo.handson.services;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+import se.kry.springboot.demo.handson.domain.EventField;
+import se.kry.springboot.demo.handson.domain.UnknownFieldException;
+
+/**
+ * {@link EventProjection}s compiled so far, by combination of fields and by raw {@code fields} parameter.
+ */
+@Component
+public class EventProjections {
+
+  // Bounds the lookup by raw parameter, which clients can vary at will, unlike the combinations of fields.
+  private static final int MAX_CACHED_PARAMETERS = 1024;
+
+  private final Map<Set<EventField>, EventProjection> byFields = new ConcurrentHashMap<>();
+  private final Map<String, EventProjection> byParameter = new ConcurrentHashMap<>();
+
+  /**
+   * @throws UnknownFieldException if a field is not one of the {@link EventField}s
+   */
+  EventProjection forParameter(String fields) {
+    var projection = byParameter.get(fields);
+    if (projection == null) {
+      projection = forFields(EventField.parse(fields));
+      if (byParameter.size() < MAX_CACHED_PARAMETERS) {
+        byParameter.putIfAbsent(fields, projection);
+      }
+    }
+    return projection;
+  }
+
+  EventProjection forFields(Set<EventField> fields) {
+    return byFields.computeIfAbsent(fields, EventProjection::new);
+  }
+}
@@ -0,0 +1,16 @@
+package se.kry.springboot.demo.handson.services;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.ConstructorBinding;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Settings of the {@link EventPurger}, which only runs when {@code events.purge.enabled} is {@code true}, every
+ * {@code events.purge.interval} (ISO-8601, default {@code P1D}).
+ */
+@ConstructorBinding
+@ConfigurationProperties("events.purge")
+public record EventPurgeProperties(
+    @DefaultValue("1825d") Duration retention) {
+}
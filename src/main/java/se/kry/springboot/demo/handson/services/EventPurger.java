@@ -0,0 +1,34 @@
+package se.kry.springboot.demo.handson.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Drops events and series whose last occurrence ended more than the retention period ago, with a single statement
+ * per table. Most of them are found in the archive, which the archiver filled with the same events long before.
+ */
+@Slf4j
+public class EventPurger {
+
+  private final EventService service;
+  private final EventPurgeProperties properties;
+  private final Counter purged;
+
+  public EventPurger(EventService service, EventPurgeProperties properties, MeterRegistry registry) {
+    this.service = service;
+    this.properties = properties;
+    this.purged = registry.counter("events.purge.deleted");
+  }
+
+  @Scheduled(initialDelayString = "${events.purge.interval:P1D}", fixedDelayString = "${events.purge.interval:P1D}")
+  public void purge() {
+    var count = service.deleteEventsEndedBefore(LocalDateTime.now().minus(properties.retention()));
+    purged.increment(count);
+    if (count > 0) {
+      log.info("Purged {} events", count);
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package se.kry.springboot.demo.handson.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(prefix = "events.purge", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(EventPurgeProperties.class)
+class EventPurgerConfiguration {
+
+  @Bean
+  EventPurger eventPurger(EventService service, EventPurgeProperties properties, MeterRegistry registry) {
+    return new EventPurger(service, properties, registry);
+  }
+}
@@ -1,69 +1,356 @@
 package se.kry.springboot.demo.handson.services;
 
+import static java.util.Comparator.comparing;
 import static java.util.Objects.requireNonNull;
+import static java.util.stream.Collectors.toMap;
+import static se.kry.springboot.demo.handson.domain.EventConstants.MAX_BATCH_SIZE;
+import static se.kry.springboot.demo.handson.domain.EventConstants.MAX_WINDOW_PAGE_END;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import javax.validation.constraints.NotNull;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import se.kry.springboot.demo.handson.data.ArchivedEvent;
+import se.kry.springboot.demo.handson.data.ArchivedEventRepository;
 import se.kry.springboot.demo.handson.data.Event;
 import se.kry.springboot.demo.handson.data.EventRepository;
+import se.kry.springboot.demo.handson.data.Recurrence;
+import se.kry.springboot.demo.handson.domain.BatchTooLargeException;
+import se.kry.springboot.demo.handson.domain.EventArchivedException;
+import se.kry.springboot.demo.handson.domain.EventBatchResponse;
 import se.kry.springboot.demo.handson.domain.EventCreationRequest;
+import se.kry.springboot.demo.handson.domain.EventField;
+import se.kry.springboot.demo.handson.domain.EventRecurrence;
 import se.kry.springboot.demo.handson.domain.EventResponse;
 import se.kry.springboot.demo.handson.domain.EventUpdateRequest;
+import se.kry.springboot.demo.handson.domain.PageTooDeepException;
+import se.kry.springboot.demo.handson.domain.PartialEventResponse;
+import se.kry.springboot.demo.handson.domain.StartIsAfterEndException;
+import se.kry.springboot.demo.handson.domain.UnsupportedSortException;
 
+/**
+ * Reads fall back to the archive for events that are no longer live, unless there is no archive as under the
+ * {@code log-store} profile.
+ */
 @Service
 public class EventService {
 
+  private static final Set<String> SORTABLE = Set.of("id", "title", "start", "end");
+
   private final EventRepository repository;
+  private final Optional<ArchivedEventRepository> archivedRepository;
+  private final EventCounter counter;
+  private final EventProjections projections;
+  private final ReadCoalescer<UUID, Optional<EventResponse>> reads = new ReadCoalescer<>();
 
-  public EventService(EventRepository repository) {
+  public EventService(EventRepository repository, Optional<ArchivedEventRepository> archivedRepository,
+                      EventCounter counter, EventProjections projections) {
     this.repository = repository;
+    this.archivedRepository = archivedRepository;
+    this.counter = counter;
+    this.projections = projections;
   }
 
   @Transactional
   public EventResponse createEvent(@NotNull EventCreationRequest eventCreationRequest) {
-    return responseFromEvent(repository.save(newEventFromCreationRequest(eventCreationRequest)));
+    var event = repository.save(newEventFromCreationRequest(eventCreationRequest));
+    counter.add(1);
+    return responseFromEvent(event);
   }
 
   public Page<EventResponse> getEvents(@NotNull Pageable pageable) {
-    return repository.findAll(pageable).map(this::responseFromEvent);
+    checkSort(pageable.getSort());
+    var content = repository.findAllBy(pageable).stream().map(this::responseFromEvent).toList();
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(content);
+    }
+    return new PageImpl<>(content, pageable, counter.count());
+  }
+
+  public Page<PartialEventResponse> getEvents(@NotNull String fields, @NotNull Pageable pageable) {
+    checkSort(pageable.getSort());
+    var projection = projections.forParameter(fields);
+    var content = repository.findAllSelected(projection.selection(), pageable).stream()
+        .map(projection::fromTuple)
+        .toList();
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(content);
+    }
+    return new PageImpl<>(content, pageable, counter.count());
+  }
+
+  public Page<EventResponse> getEvents(@NotNull LocalDateTime from, @NotNull LocalDateTime to,
+                                       @NotNull Pageable pageable) {
+    var sort = windowSort(pageable);
+    var series = repository.findSeriesOverlapping(from, to);
+    if (series.isEmpty()) {
+      return repository.findSingleEventsBetween(from, to, sorted(pageable, sort)).map(this::responseFromEvent);
+    }
+    var singles = repository.findSingleEventsBetween(from, to, headOf(pageable, sort)).map(this::responseFromEvent);
+    return merge(singles, series, from, to, pageable, sort);
+  }
+
+  public Page<PartialEventResponse> getEvents(@NotNull LocalDateTime from, @NotNull LocalDateTime to,
+                                              @NotNull String fields, @NotNull Pageable pageable) {
+    var projection = projections.forParameter(fields);
+    var sort = windowSort(pageable);
+    var series = repository.findSeriesOverlapping(from, to);
+    if (series.isEmpty()) {
+      return repository.findSelectedSingleEventsBetween(projection.selection(), from, to, sorted(pageable, sort))
+          .map(projection::fromTuple);
+    }
+
+    // The single events also need the attributes they are merged by, which the response then leaves out.
+    var merged = EnumSet.copyOf(projection.fields());
+    for (var order : sort) {
+      merged.add(EventField.valueOf(order.getProperty().toUpperCase(Locale.ROOT)));
+    }
+    var mergeProjection = projections.forFields(merged);
+    var singles = repository.findSelectedSingleEventsBetween(mergeProjection.selection(), from, to,
+        headOf(pageable, sort)).map(mergeProjection::responseFromTuple);
+    return merge(singles, series, from, to, pageable, sort).map(projection::fromResponse);
+  }
+
+  public EventBatchResponse<EventResponse> getEvents(@NotNull List<UUID> ids) {
+    return getEvents(ids, requested -> repository.findAllById(requested).stream()
+        .collect(toMap(Event::getId, this::responseFromEvent)), this::responseFromArchivedEvent);
+  }
+
+  public EventBatchResponse<PartialEventResponse> getEvents(@NotNull List<UUID> ids, @NotNull String fields) {
+    var projection = projections.forParameter(fields);
+    var idIndex = projection.fields().size();
+    return getEvents(ids, requested -> repository.findAllSelectedById(projection.selection(), requested).stream()
+            .collect(toMap(tuple -> (UUID) tuple.get(idIndex), projection::fromTuple)),
+        event -> projection.fromResponse(responseFromArchivedEvent(event)));
   }
 
   public Optional<EventResponse> getEvent(@NotNull UUID id) {
-    return repository.findById(id).map(this::responseFromEvent);
+    return reads.load(id, () -> repository.findById(id).map(this::responseFromEvent))
+        .or(() -> findArchivedEvent(id));
+  }
+
+  public Optional<PartialEventResponse> getEvent(@NotNull UUID id, @NotNull String fields) {
+    var projection = projections.forParameter(fields);
+    return repository.findSelectedById(projection.selection(), id).map(projection::fromTuple)
+        .or(() -> findArchivedEvent(id).map(projection::fromResponse));
   }
 
+  /**
+   * @throws EventArchivedException if the event was moved to the archive, which is read-only
+   */
   public Optional<EventResponse> updateEvent(@NotNull UUID id, @NotNull EventUpdateRequest eventUpdateRequest) {
-    return repository.findById(id)
-        .map(event -> updateEventFromUpdateRequest(event, eventUpdateRequest))
+    var event = repository.findById(id);
+    if (event.isEmpty() && archivedRepository.map(archive -> archive.existsById(id)).orElse(false)) {
+      throw new EventArchivedException(id);
+    }
+    var updated = event
+        .map(e -> updateEventFromUpdateRequest(e, eventUpdateRequest))
         .map(repository::save)
         .map(this::responseFromEvent);
+    reads.forget(id);
+    return updated;
+  }
+
+  /**
+   * @return {@code false} if there was no such event, neither live nor archived
+   */
+  @Transactional
+  public boolean deleteEvent(@NotNull UUID id) {
+    var event = repository.findById(id);
+    if (event.isPresent()) {
+      repository.delete(event.get());
+      counter.add(-1);
+      reads.forget(id);
+      return true;
+    }
+    if (archivedRepository.isEmpty()) {
+      return false;
+    }
+    var archivedEvent = archivedRepository.get().findById(id);
+    archivedEvent.ifPresent(archivedRepository.get()::delete);
+    return archivedEvent.isPresent();
   }
 
+  /**
+   * Deletes both the live and the archived events, since the archiver usually moved them long before.
+   */
   @Transactional
-  public void deleteEvent(@NotNull UUID id) {
-    repository.deleteById(id);
+  public int deleteEventsEndedBefore(@NotNull LocalDateTime before) {
+    var deleted = repository.deleteAllEndedBefore(before);
+    counter.add(-deleted);
+    return deleted + archivedRepository.map(archive -> archive.deleteAllEndedBefore(before)).orElse(0);
+  }
+
+  /**
+   * @throws UnsupportedSortException unless sorting by properties that both the repositories and the occurrences of
+   *                                  series can sort by
+   */
+  private static void checkSort(Sort sort) {
+    for (var order : sort) {
+      if (!SORTABLE.contains(order.getProperty())) {
+        throw new UnsupportedSortException(order.getProperty());
+      }
+    }
+  }
+
+  /**
+   * @param findLive finds the live events among the requested ones, by id
+   */
+  private <T> EventBatchResponse<T> getEvents(List<UUID> ids, Function<Set<UUID>, Map<UUID, T>> findLive,
+                                              Function<ArchivedEvent, T> fromArchivedEvent) {
+    if (ids.size() > MAX_BATCH_SIZE) {
+      throw new BatchTooLargeException(ids.size(), MAX_BATCH_SIZE);
+    }
+
+    var requested = new LinkedHashSet<>(ids);
+    var found = new HashMap<>(findLive.apply(requested));
+    if (found.size() < requested.size() && archivedRepository.isPresent()) {
+      var notFound = requested.stream().filter(id -> !found.containsKey(id)).toList();
+      archivedRepository.get().findAllById(notFound)
+          .forEach(event -> found.put(event.getId(), fromArchivedEvent.apply(event)));
+    }
+
+    var events = new ArrayList<T>(found.size());
+    var missing = new ArrayList<UUID>();
+    for (var id : requested) {
+      var event = found.get(id);
+      if (event != null) {
+        events.add(event);
+      } else {
+        missing.add(id);
+      }
+    }
+    return new EventBatchResponse<>(events, missing);
+  }
+
+  /**
+   * @throws PageTooDeepException if merging occurrences into the page would fetch too many single events before it
+   */
+  private static Sort windowSort(Pageable pageable) {
+    checkSort(pageable.getSort());
+    if (pageable.isPaged() && pageable.getOffset() + pageable.getPageSize() > MAX_WINDOW_PAGE_END) {
+      throw new PageTooDeepException(pageable.getOffset() + pageable.getPageSize(), MAX_WINDOW_PAGE_END);
+    }
+    return pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("start");
+  }
+
+  private static Pageable sorted(Pageable pageable, Sort sort) {
+    return pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort) : pageable;
+  }
+
+  /**
+   * @return the single events up to the end of the page, the only ones that can still make it to the page once merged
+   */
+  private static Pageable headOf(Pageable pageable, Sort sort) {
+    return pageable.isPaged() ? PageRequest.of(0, (int) pageable.getOffset() + pageable.getPageSize(), sort) : pageable;
+  }
+
+  /**
+   * Occurrences are bounded by the window so they are all expanded, and merged with the head of the single events.
+   */
+  private Page<EventResponse> merge(Page<EventResponse> singles, List<Event> series, LocalDateTime from,
+                                    LocalDateTime to, Pageable pageable, Sort sort) {
+    var occurrences = series.stream().flatMap(event -> occurrencesFromSeries(event, from, to)).toList();
+    var events = Stream.concat(singles.stream(), occurrences.stream()).sorted(comparator(sort));
+    if (pageable.isUnpaged()) {
+      return new PageImpl<>(events.toList());
+    }
+    var content = events.skip(pageable.getOffset()).limit(pageable.getPageSize()).toList();
+    return new PageImpl<>(content, pageable, singles.getTotalElements() + occurrences.size());
+  }
+
+  private Optional<EventResponse> findArchivedEvent(UUID id) {
+    return archivedRepository.flatMap(archive -> archive.findById(id)).map(this::responseFromArchivedEvent);
   }
 
   private Event newEventFromCreationRequest(@NotNull EventCreationRequest eventCreationRequest) {
     return new Event()
         .setTitle(eventCreationRequest.title())
         .setStart(eventCreationRequest.start())
-        .setEnd(eventCreationRequest.end());
+        .setEnd(eventCreationRequest.end())
+        .setRecurrence(recurrenceFromDomain(eventCreationRequest.recurrence()));
   }
 
   private Event updateEventFromUpdateRequest(@NotNull Event event, @NotNull EventUpdateRequest eventUpdateRequest) {
     eventUpdateRequest.title().ifPresent(event::setTitle);
     eventUpdateRequest.start().ifPresent(event::setStart);
     eventUpdateRequest.end().ifPresent(event::setEnd);
+    eventUpdateRequest.recurrence().ifPresent(recurrence -> event.setRecurrence(recurrenceFromDomain(recurrence)));
+    if (event.getStart().isAfter(event.getEnd())) {
+      throw new StartIsAfterEndException(event.getStart(), event.getEnd());
+    }
     return event;
   }
 
   private EventResponse responseFromEvent(Event event) {
-    return new EventResponse(requireNonNull(event.getId()), event.getTitle(), event.getStart(), event.getEnd());
+    return new EventResponse(requireNonNull(event.getId()), event.getTitle(), event.getStart(), event.getEnd(),
+        domainFromRecurrence(event.getRecurrence()));
+  }
+
+  private EventResponse responseFromArchivedEvent(ArchivedEvent event) {
+    return new EventResponse(event.getId(), event.getTitle(), event.getStart(), event.getEnd(),
+        domainFromRecurrence(event.getRecurrence()));
+  }
+
+  private Stream<EventResponse> occurrencesFromSeries(Event event, LocalDateTime from, LocalDateTime to) {
+    var recurrence = requireNonNull(domainFromRecurrence(event.getRecurrence()));
+    var duration = Duration.between(event.getStart(), event.getEnd());
+    return recurrence.occurrenceStarts(event.getStart(), from, to).stream()
+        .map(start -> new EventResponse(requireNonNull(event.getId()), event.getTitle(), start, start.plus(duration),
+            recurrence));
+  }
+
+  private static Comparator<EventResponse> comparator(Sort sort) {
+    Comparator<EventResponse> result = (left, right) -> 0;
+    for (var order : sort) {
+      Comparator<EventResponse> comparator = switch (order.getProperty()) {
+        case "id" -> comparing(EventResponse::id);
+        case "title" -> comparing(EventResponse::title);
+        case "start" -> comparing(EventResponse::start);
+        case "end" -> comparing(EventResponse::end);
+        default -> throw new UnsupportedSortException(order.getProperty());
+      };
+      result = result.thenComparing(order.isDescending() ? comparator.reversed() : comparator);
+    }
+    return result;
+  }
+
+  private static Recurrence recurrenceFromDomain(EventRecurrence recurrence) {
+    if (recurrence == null) {
+      return null;
+    }
+    return new Recurrence()
+        .setFrequency(recurrence.frequency())
+        .setInterval(recurrence.interval())
+        .setCount(recurrence.count())
+        .setUntil(recurrence.until())
+        .setExceptions(recurrence.exceptions());
+  }
+
+  static EventRecurrence domainFromRecurrence(Recurrence recurrence) {
+    if (recurrence == null || recurrence.getFrequency() == null) {
+      return null;
+    }
+    return new EventRecurrence(recurrence.getFrequency(), recurrence.getInterval(), recurrence.getCount(),
+        recurrence.getUntil(), recurrence.getExceptions());
   }
 }
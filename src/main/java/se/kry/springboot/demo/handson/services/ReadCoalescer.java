@@ -0,0 +1,64 @@
+package se.kry.springboot.demo.handson.services;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Lets concurrent reads of the same key share a single load, so that a burst of requests for a hot event missing from
+ * the cache only goes to the database once. Writes make it forget the load in flight once committed, so that reads
+ * arriving after them never join a load that started before.
+ */
+class ReadCoalescer<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+  V load(K key, Supplier<V> loader) {
+    var load = new CompletableFuture<V>();
+    var pending = loads.putIfAbsent(key, load);
+    if (pending != null) {
+      return join(pending);
+    }
+    try {
+      var value = loader.get();
+      load.complete(value);
+      return value;
+    } catch (RuntimeException | Error e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      loads.remove(key, load);
+    }
+  }
+
+  void forget(K key) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          loads.remove(key);
+        }
+      });
+    } else {
+      loads.remove(key);
+    }
+  }
+
+  private static <V> V join(CompletableFuture<V> load) {
+    try {
+      return load.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
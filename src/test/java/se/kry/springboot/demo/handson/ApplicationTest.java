@@ -10,16 +10,21 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import se.kry.springboot.demo.handson.data.EventRepository;
 
-@SpringBootTest
+// On a real port, which the warm-up sends its requests to.
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
 class ApplicationTest {
 
@@ -32,6 +37,20 @@ class ApplicationTest {
   @Autowired
   private EventRepository repository;
 
+  @Autowired
+  private ApplicationAvailability availability;
+
+  @Autowired
+  private MeterRegistry registry;
+
+  @Test
+  void ready_after_warm_up_without_leftovers() {
+    assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    assertThat(repository.count()).isZero();
+    // Nor were the rolled back writes of the warm-up counted.
+    assertThat(registry.get("events.count").gauge().value()).isZero();
+  }
+
   @Test
   void scenario() throws Exception {
     UUID id = step1_create_event();
@@ -0,0 +1,78 @@
+package se.kry.springboot.demo.handson;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+
+/**
+ * Timed loops for the comparisons tagged {@value #TAG}, which only run with {@code ./gradlew benchmark}. Cruder than
+ * JMH, but enough to compare code paths run back to back in the same JVM.
+ */
+public final class Benchmarks {
+
+  public static final String TAG = "benchmark";
+
+  private static final Duration WARM_UP = Duration.ofSeconds(2);
+  private static final Duration MEASUREMENT = Duration.ofSeconds(5);
+
+  // Keeps the results alive so that the JIT cannot drop the operations.
+  private static volatile Object sink;
+
+  private Benchmarks() {
+  }
+
+  /**
+   * @return operations per second, measured after warming up
+   */
+  public static double throughput(String name, Callable<?> operation) {
+    measure(operation, WARM_UP);
+    var throughput = measure(operation, MEASUREMENT);
+    System.out.printf("%-60s %,14.0f ops/s%n", name, throughput);
+    return throughput;
+  }
+
+  /**
+   * @return operations per second of all the threads together, measured after warming up
+   */
+  public static double throughput(String name, int threads, Callable<?> operation) {
+    var executor = Executors.newFixedThreadPool(threads);
+    try {
+      var results = executor.invokeAll(Collections.nCopies(threads, () -> {
+        measure(operation, WARM_UP);
+        return measure(operation, MEASUREMENT);
+      }));
+      var throughput = 0.0;
+      for (var result : results) {
+        throughput += result.get();
+      }
+      System.out.printf("%-60s %,14.0f ops/s%n", name + " (" + threads + " threads)", throughput);
+      return throughput;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static double measure(Callable<?> operation, Duration duration) {
+    var started = System.nanoTime();
+    var deadline = started + duration.toNanos();
+    var operations = 0L;
+    long now;
+    do {
+      try {
+        sink = operation.call();
+      } catch (Exception e) {
+        throw new IllegalStateException(e);
+      }
+      operations++;
+      now = System.nanoTime();
+    } while (now - deadline < 0L);
+    return operations * 1e9 / (now - started);
+  }
+}
@@ -0,0 +1,100 @@
+package se.kry.springboot.demo.handson;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
+import java.nio.file.Path;
+import java.util.UUID;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import se.kry.springboot.demo.handson.data.EventRepository;
+import se.kry.springboot.demo.handson.data.LogStructuredEventRepository;
+import se.kry.springboot.demo.handson.services.EventArchiver;
+
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("log-store")
+@AutoConfigureMockMvc
+class LogStoreApplicationTest {
+
+  @TempDir
+  static Path directory;
+
+  @Autowired
+  private ApplicationContext context;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private EventRepository repository;
+
+  @Autowired
+  private ApplicationAvailability availability;
+
+  @DynamicPropertySource
+  static void logStoreDirectory(DynamicPropertyRegistry registry) {
+    registry.add("events.log-store.directory", () -> directory.toString());
+  }
+
+  @Test
+  void ready_after_warm_up_without_leftovers() {
+    assertThat(availability.getReadinessState()).isEqualTo(ReadinessState.ACCEPTING_TRAFFIC);
+    // The warm-up wrote to a log of its own.
+    assertThat(repository.count()).isZero();
+  }
+
+  @Test
+  void runs_without_database() {
+    assertThat(repository).isInstanceOf(LogStructuredEventRepository.class);
+    assertThat(context.getBeanNamesForType(DataSource.class)).isEmpty();
+    assertThat(context.getBeanNamesForType(EntityManagerFactory.class)).isEmpty();
+    assertThat(context.getBeanNamesForType(EventArchiver.class)).isEmpty();
+  }
+
+  @Test
+  void create_and_read_event() throws Exception {
+    var payload = objectMapper.createObjectNode()
+        .put("title", "Some event")
+        .put("start", "2001-01-01T00:00:00")
+        .put("end", "2001-01-01T12:00:00")
+        .toString();
+
+    var result = mockMvc.perform(post("/api/v1/events")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload))
+        .andExpect(status().isCreated())
+        .andReturn();
+    var id = UUID.fromString(JsonPath.read(result.getResponse().getContentAsString(), "$.id"));
+
+    mockMvc.perform(get("/api/v1/events/{id}", id))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.title").value("Some event"));
+    mockMvc.perform(get("/api/v1/events/{id}", UUID.randomUUID()))
+        .andExpect(status().isNotFound());
+    mockMvc.perform(delete("/api/v1/events/{id}", id))
+        .andExpect(status().isOk());
+  }
+}
@@ -0,0 +1,83 @@
+package se.kry.springboot.demo.handson.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@DataJpaTest(properties = "events.cache.statistics.enabled=true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventCacheTest {
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private EventRepository repository;
+
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterEach
+  void tearDown() {
+    repository.findAllBy(Pageable.unpaged()).forEach(repository::delete);
+  }
+
+  @Test
+  void get_event_twice() {
+    var id = repository.save(newEvent("Some event")).getId();
+    repository.findById(id);
+
+    statistics.clear();
+    var event = repository.findById(id);
+
+    assertThat(event).isNotEmpty();
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void get_events_twice() {
+    repository.save(newEvent("Some event"));
+    repository.findAllBy(Pageable.ofSize(20));
+
+    statistics.clear();
+    var events = repository.findAllBy(Pageable.ofSize(20));
+
+    assertThat(events).hasSize(1);
+    assertThat(statistics.getPrepareStatementCount()).isZero();
+  }
+
+  @Test
+  void get_events_after_save() {
+    repository.save(newEvent("Some event"));
+    repository.findAllBy(Pageable.ofSize(20));
+    repository.save(newEvent("Some other event"));
+
+    statistics.clear();
+    var events = repository.findAllBy(Pageable.ofSize(20));
+
+    assertThat(events).hasSize(2);
+    assertThat(statistics.getPrepareStatementCount()).isPositive();
+  }
+
+  private static Event newEvent(String title) {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    return new Event().setTitle(title).setStart(start).setEnd(start.plusHours(12));
+  }
+}
@@ -5,8 +5,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Month;
+import java.util.List;
 import java.util.UUID;
 import java.util.stream.IntStream;
 import javax.validation.ConstraintViolationException;
@@ -14,7 +16,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
 
 @DataJpaTest
 class EventRepositoryTest {
@@ -52,13 +57,156 @@ class EventRepositoryTest {
         .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
         .forEach(entityManager::persist);
 
-    var events = repository.findAll(Pageable.ofSize(20));
+    var events = repository.findAllBy(Pageable.ofSize(20));
     assertThat(events).hasSize(20);
-    assertThat(events.getTotalElements()).isEqualTo(50);
-    assertThat(events.getTotalPages()).isEqualTo(3);
-    assertThat(events.getNumber()).isZero();
-    assertThat(events.getNumberOfElements()).isEqualTo(20);
-    assertThat(events.getSize()).isEqualTo(20);
+    assertThat(repository.count()).isEqualTo(50);
+  }
+
+  @Test
+  void get_events_without_count() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    IntStream.range(0, 50)
+        .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
+        .forEach(entityManager::persist);
+
+    var events = repository.findAllBy(PageRequest.of(2, 20));
+    assertThat(events).hasSize(10);
+  }
+
+  @Test
+  void get_events_between() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    IntStream.range(0, 50)
+        .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
+        .forEach(entityManager::persist);
+
+    var events = repository.findSingleEventsBetween(
+        start.plusDays(10), start.plusDays(40), Pageable.ofSize(20));
+    assertThat(events).hasSize(20)
+        .allSatisfy(e -> assertThat(e.getStart()).isAfterOrEqualTo(start.plusDays(10)).isBefore(start.plusDays(40)));
+    assertThat(events.getTotalElements()).isEqualTo(30);
+    assertThat(events.getTotalPages()).isEqualTo(2);
+  }
+
+  @Test
+  void get_series_overlapping() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    entityManager.persist(new Event().setTitle("Single event").setStart(start).setEnd(start.plusHours(1)));
+    entityManager.persist(new Event().setTitle("Endless series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.WEEKLY).setInterval(1)));
+    entityManager.persist(new Event().setTitle("Ended series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setUntil(start.plusDays(10))));
+    entityManager.persist(new Event().setTitle("Counted series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setCount(10)));
+
+    var series = repository.findSeriesOverlapping(start.plusMonths(1), start.plusMonths(2));
+    assertThat(series).singleElement()
+        .satisfies(e -> assertThat(e.getTitle()).isEqualTo("Endless series"));
+  }
+
+  @Test
+  void delete_events_ended_before() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    IntStream.range(0, 50)
+        .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
+        .forEach(entityManager::persist);
+    entityManager.persist(new Event().setTitle("Ended series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setCount(3)));
+    entityManager.persist(new Event().setTitle("Running series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setUntil(start.plusDays(100))));
+    entityManager.persist(new Event().setTitle("Endless series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.WEEKLY).setInterval(1)));
+
+    var deleted = repository.deleteAllEndedBefore(start.plusDays(31));
+    assertThat(deleted).isEqualTo(32);
+    assertThat(repository.count()).isEqualTo(21);
+  }
+
+  @Test
+  void get_events_ended_before() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    var single = entityManager.persist(new Event().setTitle("Single event").setStart(start).setEnd(start.plusHours(1)));
+    var ended = entityManager.persist(new Event().setTitle("Ended series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.WEEKLY).setInterval(1).setCount(10)));
+    entityManager.persist(new Event().setTitle("Endless series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.WEEKLY).setInterval(1)));
+    entityManager.persist(new Event().setTitle("Later series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.WEEKLY).setInterval(1).setCount(100)));
+
+    assertThat(ended.getLastEnd()).isEqualTo(start.plusWeeks(9).plusHours(1));
+
+    var events = repository.findByLastEndBeforeOrderByIdAsc(start.plusYears(1), Pageable.ofSize(10));
+    assertThat(events).extracting(Event::getId).containsExactlyInAnyOrder(single.getId(), ended.getId());
+  }
+
+  @Test
+  void get_selected_events() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    IntStream.range(0, 50)
+        .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
+        .forEach(entityManager::persist);
+
+    var events = repository.findAllSelected(EventSelection.of(List.of("id", "start")), Pageable.ofSize(20));
+    assertThat(events).hasSize(20)
+        .allSatisfy(tuple -> {
+          assertThat(tuple.getElements()).hasSize(2);
+          assertThat(tuple.get(0)).isInstanceOf(UUID.class);
+          assertThat(tuple.get(1)).isInstanceOf(LocalDateTime.class);
+        });
+  }
+
+  @Test
+  void get_selected_event() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    var id =
+        entityManager.persistAndGetId(new Event().setTitle("Some event").setStart(start).setEnd(start.plusHours(12)),
+            UUID.class);
+
+    var event = repository.findSelectedById(EventSelection.of(List.of("title", "end")), id);
+    assertThat(event)
+        .hasValueSatisfying(tuple -> {
+          assertThat(tuple.get(0)).isEqualTo("Some event");
+          assertThat(tuple.get(1)).hasToString("2001-01-01T12:00");
+        });
+  }
+
+  @Test
+  void get_selected_events_by_id() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    var id =
+        entityManager.persistAndGetId(new Event().setTitle("Some event").setStart(start).setEnd(start.plusHours(12)),
+            UUID.class);
+
+    var events = repository.findAllSelectedById(EventSelection.of(List.of("title")), List.of(id, UUID.randomUUID()));
+    assertThat(events).singleElement()
+        .satisfies(tuple -> {
+          assertThat(tuple.get(0)).isEqualTo("Some event");
+          assertThat(tuple.get(1)).isEqualTo(id);
+        });
+  }
+
+  @Test
+  void get_selected_single_events_between() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    IntStream.range(0, 50)
+        .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
+        .forEach(entityManager::persist);
+
+    var events = repository.findSelectedSingleEventsBetween(EventSelection.of(List.of("title")), start.plusDays(10),
+        start.plusDays(40), PageRequest.of(1, 20, Sort.by("start")));
+    assertThat(events.getTotalElements()).isEqualTo(30);
+    assertThat(events.getContent()).extracting(tuple -> tuple.get(0))
+        .containsExactly("Event30", "Event31", "Event32", "Event33", "Event34", "Event35", "Event36", "Event37",
+            "Event38", "Event39");
   }
 
   @Test
@@ -78,8 +226,10 @@ class EventRepositoryTest {
   void save_event_with_blank_title() {
     var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
 
-    var exception = assertThrows(ConstraintViolationException.class, () ->
-        repository.saveAndFlush(new Event().setTitle(" ").setStart(start).setEnd(start.plusHours(12))));
+    var exception = assertThrows(ConstraintViolationException.class, () -> {
+      repository.save(new Event().setTitle(" ").setStart(start).setEnd(start.plusHours(12)));
+      entityManager.flush();
+    });
 
     assertThat(exception.getConstraintViolations()).hasSize(1);
   }
@@ -89,8 +239,10 @@ class EventRepositoryTest {
     var title = "X".repeat(300);
     var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
 
-    var exception = assertThrows(ConstraintViolationException.class, () ->
-        repository.saveAndFlush(new Event().setTitle(title).setStart(start).setEnd(start.plusHours(12))));
+    var exception = assertThrows(ConstraintViolationException.class, () -> {
+      repository.save(new Event().setTitle(title).setStart(start).setEnd(start.plusHours(12)));
+      entityManager.flush();
+    });
 
     assertThat(exception.getConstraintViolations()).hasSize(1);
   }
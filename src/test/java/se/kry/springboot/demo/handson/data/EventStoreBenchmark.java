@@ -0,0 +1,90 @@
+package se.kry.springboot.demo.handson.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.kry.springboot.demo.handson.Benchmarks;
+
+/**
+ * Creates, reads and updates through the JPA repository and the log store, each write committed on its own. The test
+ * database is in memory and never syncs to disk, unlike the log store, so this is the price of durability the log
+ * store pays against a database that does not.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Tag(Benchmarks.TAG)
+class EventStoreBenchmark {
+
+  private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+  private static final LocalDateTime START = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+  private static final int EVENTS = 10_000;
+  // Enough concurrent writers for group commit to share its flushes.
+  private static final int THREADS = 8;
+
+  @TempDir
+  Path directory;
+
+  @Autowired
+  private EventRepository repository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @AfterEach
+  void deleteEvents() {
+    new TransactionTemplate(transactionManager)
+        .executeWithoutResult(status -> repository.deleteAllEndedBefore(START.plusYears(1)));
+  }
+
+  @Test
+  void jpa() {
+    compare("JPA", repository);
+  }
+
+  @Test
+  void log_store() throws IOException {
+    try (var eventLog = EventLog.open(directory, 64 << 20, Duration.ofMillis(2))) {
+      compare("Log store", new LogStructuredEventRepository(eventLog, VALIDATOR));
+    }
+  }
+
+  private static void compare(String store, EventRepository repository) {
+    var ids = IntStream.range(0, EVENTS).mapToObj(i -> repository.save(event("Event" + i)).getId()).toList();
+    assertThat(repository.count()).isEqualTo(EVENTS);
+
+    Benchmarks.throughput(store + " create", THREADS, () -> repository.save(event("Created")));
+    Benchmarks.throughput(store + " read by id", THREADS, () -> repository.findById(any(ids)));
+    Benchmarks.throughput(store + " update", THREADS,
+        () -> repository.save(repository.findById(any(ids)).orElseThrow().setTitle("Updated")));
+  }
+
+  private static UUID any(List<UUID> ids) {
+    return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+  }
+
+  private static Event event(String title) {
+    return new Event().setTitle(title).setStart(START).setEnd(START.plusHours(1));
+  }
+}
@@ -0,0 +1,286 @@
+package se.kry.springboot.demo.handson.data;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.TupleElement;
+import javax.validation.ConstraintViolationException;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+
+class LogStructuredEventRepositoryTest {
+
+  private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+  @TempDir
+  Path directory;
+
+  private EventLog eventLog;
+  private LogStructuredEventRepository repository;
+
+  @BeforeEach
+  void open() throws IOException {
+    reopen();
+  }
+
+  @AfterEach
+  void close() throws IOException {
+    eventLog.close();
+  }
+
+  @Test
+  void saved_events_survive_reopen() throws IOException {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var single = repository.save(new Event().setTitle("single").setStart(start).setEnd(start.plusHours(1)));
+    var series = repository.save(new Event().setTitle("series").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.WEEKLY).setInterval(1)));
+
+    reopen();
+
+    assertThat(repository.count()).isEqualTo(2);
+    assertThat(repository.findById(single.getId())).hasValueSatisfying(event -> {
+      assertThat(event.getTitle()).isEqualTo("single");
+      assertThat(event.getRecurrence()).isNull();
+    });
+    assertThat(repository.findById(series.getId())).hasValueSatisfying(
+        event -> assertThat(event.getRecurrence().getFrequency()).isEqualTo(Frequency.WEEKLY));
+  }
+
+  @Test
+  void deleted_events_stay_deleted_after_compaction_and_reopen() throws IOException {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var kept = repository.save(new Event().setTitle("kept").setStart(start).setEnd(start.plusHours(1)));
+    var deleted = repository.save(new Event().setTitle("deleted").setStart(start).setEnd(start.plusHours(1)));
+
+    repository.delete(deleted);
+    repository.compact();
+    var updated = repository.save(kept.setTitle("updated"));
+    reopen();
+
+    assertThat(repository.findAllBy(Pageable.unpaged())).extracting(Event::getId).containsExactly(updated.getId());
+    assertThat(repository.findById(kept.getId())).hasValueSatisfying(
+        event -> assertThat(event.getTitle()).isEqualTo("updated"));
+    assertThat(repository.findById(deleted.getId())).isEmpty();
+    assertThat(repository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void torn_tail_entry_is_discarded() throws IOException {
+    var first = record("first");
+    var second = record("second");
+    var afterFirst = eventLog.appendPut(first);
+    var afterSecond = eventLog.appendPut(second);
+    eventLog.awaitDurable(afterSecond);
+    eventLog.close();
+
+    // Cut the second entry in half, as if the process died while its pages were written back.
+    try (var channel = FileChannel.open(onlySegment(), StandardOpenOption.WRITE)) {
+      channel.truncate(afterFirst + (afterSecond - afterFirst) / 2);
+    }
+    reopen();
+
+    assertThat(repository.findById(first.id())).isNotEmpty();
+    assertThat(repository.findById(second.id())).isEmpty();
+
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var third = repository.save(new Event().setTitle("third").setStart(start).setEnd(start.plusHours(1)));
+    reopen();
+
+    assertThat(repository.findAllBy(Pageable.unpaged())).extracting(Event::getId)
+        .containsExactlyInAnyOrder(first.id(), third.getId());
+  }
+
+  @Test
+  void corrupted_tail_entry_is_discarded() throws IOException {
+    var first = record("first");
+    var second = record("second");
+    var afterFirst = eventLog.appendPut(first);
+    eventLog.awaitDurable(eventLog.appendPut(second));
+    eventLog.close();
+
+    // Flip a bit of the id of the second entry, right after its length and CRC.
+    try (var channel = FileChannel.open(onlySegment(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      var position = afterFirst + 2 * Integer.BYTES + 1;
+      var bytes = ByteBuffer.allocate(1);
+      channel.read(bytes, position);
+      channel.write(ByteBuffer.wrap(new byte[] {(byte) (bytes.get(0) ^ 1)}), position);
+    }
+    reopen();
+
+    assertThat(repository.findById(first.id())).isNotEmpty();
+    assertThat(repository.findById(second.id())).isEmpty();
+    assertThat(repository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void segments_left_behind_by_a_crash_during_compaction_are_skipped() throws IOException {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var kept = repository.save(new Event().setTitle("kept").setStart(start).setEnd(start.plusHours(1)));
+    var deleted = repository.save(new Event().setTitle("deleted").setStart(start).setEnd(start.plusHours(1)));
+    var compacted = onlySegment();
+    var content = Files.readAllBytes(compacted);
+
+    repository.compact();
+    repository.delete(deleted);
+    eventLog.close();
+
+    // The snapshot was moved in place, but the segment it covers was not deleted yet.
+    Files.write(compacted, content);
+    reopen();
+
+    assertThat(Files.exists(compacted)).isFalse();
+    assertThat(repository.findAllBy(Pageable.unpaged())).extracting(Event::getId).containsExactly(kept.getId());
+    assertThat(repository.count()).isEqualTo(1);
+  }
+
+  @Test
+  void writes_between_rotation_and_snapshot_survive_reopen() throws IOException {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var before = repository.save(new Event().setTitle("before").setStart(start).setEnd(start.plusHours(1)));
+
+    var records = List.of(EventRecord.fromEvent(before));
+    var cut = eventLog.rotate();
+    var during = repository.save(new Event().setTitle("during").setStart(start).setEnd(start.plusHours(1)));
+    eventLog.snapshot(records, cut);
+    reopen();
+
+    assertThat(repository.findAllBy(Pageable.unpaged())).extracting(Event::getId)
+        .containsExactlyInAnyOrder(before.getId(), during.getId());
+  }
+
+  @Test
+  void torn_tail_of_a_segment_not_forced_before_a_crash_is_discarded() throws IOException {
+    var first = record("first");
+    var second = record("second");
+    var afterFirst = eventLog.appendPut(first);
+    var afterSecond = eventLog.appendPut(second);
+    eventLog.awaitDurable(afterSecond);
+    var previous = onlySegment();
+    eventLog.rotate();
+    var third = record("third");
+    eventLog.awaitDurable(eventLog.appendPut(third));
+    eventLog.close();
+
+    // As if the process died after rotating, before the previous segment was forced as a whole.
+    try (var channel = FileChannel.open(previous, StandardOpenOption.WRITE)) {
+      channel.truncate(afterFirst + (afterSecond - afterFirst) / 2);
+    }
+    reopen();
+    reopen();
+
+    assertThat(repository.findAllBy(Pageable.unpaged())).extracting(Event::getId)
+        .containsExactlyInAnyOrder(first.id(), third.id());
+  }
+
+  @Test
+  void writes_fail_once_the_log_fails_to_flush() throws IOException {
+    eventLog.close();
+    // Only flushed on demand, so that nothing is flushed before the directory is gone.
+    eventLog = EventLog.open(directory, 4096, Duration.ofHours(1));
+    repository = new LogStructuredEventRepository(eventLog, VALIDATOR);
+    var position = eventLog.appendPut(record("first"));
+    var cut = eventLog.rotate();
+
+    try (var files = Files.list(directory)) {
+      for (var file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+
+    assertThatThrownBy(() -> eventLog.snapshot(List.of(), cut)).isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> eventLog.awaitDurable(position)).isInstanceOf(IOException.class);
+    assertThatThrownBy(() -> eventLog.appendPut(record("second"))).isInstanceOf(IOException.class);
+    assertThatThrownBy(eventLog::close).isInstanceOf(IOException.class);
+
+    eventLog = null;
+    reopen();
+  }
+
+  @Test
+  void series_that_ended_before_the_window_are_left_out() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var counted = repository.save(new Event().setTitle("counted").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setCount(3)));
+    var endless = repository.save(new Event().setTitle("endless").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1)));
+
+    assertThat(repository.findSeriesOverlapping(start.plusDays(1), start.plusDays(2))).extracting(Event::getId)
+        .containsExactlyInAnyOrder(counted.getId(), endless.getId());
+    assertThat(repository.findSeriesOverlapping(start.plusDays(10), start.plusDays(11))).extracting(Event::getId)
+        .containsExactly(endless.getId());
+  }
+
+  @Test
+  void find_all_sorted_and_paged() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    List.of("b", "a", "c").forEach(
+        title -> repository.save(new Event().setTitle(title).setStart(start).setEnd(start.plusHours(1))));
+
+    var events = repository.findAllBy(PageRequest.of(0, 2, Sort.by("title")));
+
+    assertThat(repository.count()).isEqualTo(3);
+    assertThat(events).extracting(Event::getTitle).containsExactly("a", "b");
+  }
+
+  @Test
+  void invalid_events_are_rejected() {
+    assertThatThrownBy(() -> repository.save(new Event().setTitle("no dates")))
+        .isInstanceOf(ConstraintViolationException.class);
+    assertThat(repository.count()).isZero();
+  }
+
+  @Test
+  void selected_attributes_are_aliased_by_name() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var event = repository.save(new Event().setTitle("some event").setStart(start).setEnd(start.plusHours(1)));
+
+    var tuple = repository.findSelectedById(EventSelection.of(List.of("id", "title")), event.getId()).orElseThrow();
+
+    assertThat(tuple.getElements()).extracting(TupleElement::getAlias).containsExactly("id", "title");
+    assertThat(tuple.get(tuple.getElements().get(1))).isEqualTo("some event");
+    assertThat(tuple.get("id", UUID.class)).isEqualTo(event.getId());
+    assertThatThrownBy(() -> tuple.get("start")).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private void reopen() throws IOException {
+    if (eventLog != null) {
+      eventLog.close();
+    }
+    eventLog = EventLog.open(directory, 4096, Duration.ofMillis(1));
+    repository = new LogStructuredEventRepository(eventLog, VALIDATOR);
+  }
+
+  private Path onlySegment() throws IOException {
+    try (var files = Files.list(directory)) {
+      var segments = files.filter(file -> file.getFileName().toString().endsWith(".log")).toList();
+      assertThat(segments).hasSize(1);
+      return segments.get(0);
+    }
+  }
+
+  private static EventRecord record(String title) {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    return new EventRecord(UUID.randomUUID(), title, start, start.plusHours(1), null, null, null, null, null);
+  }
+}
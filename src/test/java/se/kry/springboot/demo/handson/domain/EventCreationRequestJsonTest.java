@@ -21,7 +21,7 @@ class EventCreationRequestJsonTest {
   void serialize() throws IOException {
     var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
 
-    var jsonContent = jacksonTester.write(new EventCreationRequest("Some event", start, start.plusHours(12)));
+    var jsonContent = jacksonTester.write(new EventCreationRequest("Some event", start, start.plusHours(12), null));
 
     assertThat(jsonContent).isEqualToJson("EventCreationRequest.json");
   }
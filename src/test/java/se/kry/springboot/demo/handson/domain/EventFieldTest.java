@@ -0,0 +1,31 @@
+package se.kry.springboot.demo.handson.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class EventFieldTest {
+
+  @Test
+  void parse() {
+    assertThat(EventField.parse("start, id")).containsExactly(EventField.ID, EventField.START);
+  }
+
+  @Test
+  void parse_all_components() {
+    assertThat(EventField.parse("id,title,start,end,recurrence")).containsExactly(EventField.values());
+  }
+
+  @Test
+  void parse_unknown_field() {
+    var exception = assertThrows(UnknownFieldException.class, () -> EventField.parse("id,location"));
+
+    assertThat(exception.getField()).isEqualTo("location");
+  }
+
+  @Test
+  void parse_empty() {
+    assertThrows(UnknownFieldException.class, () -> EventField.parse(""));
+  }
+}
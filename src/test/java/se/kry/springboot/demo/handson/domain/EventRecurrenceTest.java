@@ -0,0 +1,100 @@
+package se.kry.springboot.demo.handson.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+
+class EventRecurrenceTest {
+
+  @Test
+  void daily_occurrences_in_window() {
+    var first = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.NOON);
+    var recurrence = new EventRecurrence(Frequency.DAILY, null, null, null, null);
+
+    var starts = recurrence.occurrenceStarts(first, first.plusDays(10), first.plusDays(13));
+
+    assertThat(starts).containsExactly(first.plusDays(10), first.plusDays(11), first.plusDays(12));
+  }
+
+  @Test
+  void window_far_from_first_occurrence() {
+    var first = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.NOON);
+    var recurrence = new EventRecurrence(Frequency.DAILY, null, null, null, null);
+
+    var from = LocalDate.of(2101, Month.JANUARY, 1).atStartOfDay();
+    var starts = recurrence.occurrenceStarts(first, from, from.plusWeeks(1));
+
+    assertThat(starts).hasSize(7).allSatisfy(start -> assertThat(start.toLocalTime()).isEqualTo(LocalTime.NOON));
+  }
+
+  @Test
+  void weekly_occurrences_with_interval() {
+    var first = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.NOON);
+    var recurrence = new EventRecurrence(Frequency.WEEKLY, 2, null, null, null);
+
+    var starts = recurrence.occurrenceStarts(first, first, first.plusWeeks(6));
+
+    assertThat(starts).containsExactly(first, first.plusWeeks(2), first.plusWeeks(4));
+  }
+
+  @Test
+  void monthly_occurrences_keep_day_of_month() {
+    var first = LocalDate.of(2001, Month.JANUARY, 31).atTime(LocalTime.NOON);
+    var recurrence = new EventRecurrence(Frequency.MONTHLY, null, null, null, null);
+
+    var starts = recurrence.occurrenceStarts(first, first.plusDays(50), first.plusMonths(4));
+
+    assertThat(starts).containsExactly(LocalDate.of(2001, Month.MARCH, 31).atTime(LocalTime.NOON),
+        LocalDate.of(2001, Month.APRIL, 30).atTime(LocalTime.NOON));
+  }
+
+  @Test
+  void occurrences_stop_at_count_and_until() {
+    var first = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.NOON);
+
+    assertThat(new EventRecurrence(Frequency.DAILY, null, 3, null, null)
+        .occurrenceStarts(first, first, first.plusDays(10))).hasSize(3);
+    assertThat(new EventRecurrence(Frequency.DAILY, null, null, first.plusDays(4), null)
+        .occurrenceStarts(first, first, first.plusDays(10))).hasSize(5);
+  }
+
+  @Test
+  void exceptions_are_skipped() {
+    var first = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.NOON);
+    var recurrence = new EventRecurrence(Frequency.DAILY, null, null, null, Set.of(first.plusDays(1)));
+
+    var starts = recurrence.occurrenceStarts(first, first, first.plusDays(3));
+
+    assertThat(starts).containsExactly(first, first.plusDays(2));
+  }
+
+  @Test
+  void last_start_from_count_or_until() {
+    var first = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.NOON);
+
+    assertThat(new EventRecurrence(Frequency.WEEKLY, 2, 3, null, null).lastStart(first))
+        .isEqualTo(first.plusWeeks(4));
+    assertThat(new EventRecurrence(Frequency.DAILY, null, null, first.plusDays(4).plusHours(1), null)
+        .lastStart(first)).isEqualTo(first.plusDays(4));
+    assertThat(new EventRecurrence(Frequency.DAILY, null, 3, first.plusDays(10), null).lastStart(first))
+        .isEqualTo(first.plusDays(2));
+    assertThat(new EventRecurrence(Frequency.DAILY, null, null, null, null).lastStart(first)).isNull();
+  }
+
+  @Test
+  void last_start_matches_expansion_across_short_months() {
+    var first = LocalDate.of(2001, Month.JANUARY, 31).atTime(LocalTime.NOON);
+    var recurrence = new EventRecurrence(Frequency.MONTHLY, null, null,
+        LocalDate.of(2001, Month.FEBRUARY, 28).atTime(LocalTime.NOON), null);
+
+    var starts = recurrence.occurrenceStarts(first, first, first.plusYears(1));
+
+    assertThat(recurrence.lastStart(first)).isEqualTo(starts.get(starts.size() - 1))
+        .isEqualTo(LocalDate.of(2001, Month.FEBRUARY, 28).atTime(LocalTime.NOON));
+  }
+}
@@ -30,7 +30,8 @@ class EventUpdateRequestJsonTest {
 
   @Test
   void serialize_empty() throws IOException {
-    var eventUpdateRequest = new EventUpdateRequest(Optional.empty(), Optional.empty(), Optional.empty());
+    var eventUpdateRequest =
+        new EventUpdateRequest(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
 
     var jsonContent = jacksonTester.write(eventUpdateRequest);
 
@@ -55,7 +56,8 @@ class EventUpdateRequestJsonTest {
     var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT).plusHours(1);
 
     var jsonContent = jacksonTester.write(
-        new EventUpdateRequest(Optional.of("Some other event"), Optional.of(start), Optional.of(start.plusHours(12))));
+        new EventUpdateRequest(Optional.of("Some other event"), Optional.of(start), Optional.of(start.plusHours(12)),
+            Optional.empty()));
 
     assertThat(jsonContent).isEqualToJson("EventUpdateRequest.json");
   }
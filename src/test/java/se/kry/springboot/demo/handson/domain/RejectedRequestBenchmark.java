@@ -0,0 +1,52 @@
+package se.kry.springboot.demo.handson.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDateTime;
+import javax.validation.Validation;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import se.kry.springboot.demo.handson.Benchmarks;
+
+@Tag(Benchmarks.TAG)
+class RejectedRequestBenchmark {
+
+  private static final String PAYLOAD =
+      "{\"title\":\"Some event\",\"start\":\"2001-01-01T12:00:00\",\"end\":\"2001-01-01T00:00:00\"}";
+
+  private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+  @Test
+  void rejected_creation_requests() throws Exception {
+    var validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    var before = Benchmarks.throughput("Rejected by an exception from the constructor", () -> {
+      try {
+        return objectMapper.readValue(PAYLOAD, ThrowingCreationRequest.class);
+      } catch (JsonMappingException e) {
+        return e;
+      }
+    });
+    var after = Benchmarks.throughput("Rejected by a constraint violation",
+        () -> validator.validate(objectMapper.readValue(PAYLOAD, EventCreationRequest.class)));
+
+    System.out.printf("Rejected requests are %.1f times cheaper%n", after / before);
+    assertThat(validator.validate(objectMapper.readValue(PAYLOAD, EventCreationRequest.class))).hasSize(1);
+  }
+
+  /**
+   * How creation requests used to be rejected, from within deserialization with a stack trace and an eagerly formatted
+   * message.
+   */
+  record ThrowingCreationRequest(String title, LocalDateTime start, LocalDateTime end) {
+
+    ThrowingCreationRequest {
+      if (start.isAfter(end)) {
+        throw new IllegalArgumentException(String.format("Start %s is after end %s", start, end));
+      }
+    }
+  }
+}
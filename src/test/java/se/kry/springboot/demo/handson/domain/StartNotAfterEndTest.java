@@ -0,0 +1,60 @@
+package se.kry.springboot.demo.handson.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Optional;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class StartNotAfterEndTest {
+
+  private static Validator validator;
+
+  @BeforeAll
+  static void setUp() {
+    validator = Validation.buildDefaultValidatorFactory().getValidator();
+  }
+
+  @Test
+  void creation_request_with_start_before_end() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    assertThat(validator.validate(new EventCreationRequest("Some event", start, start.plusHours(12), null))).isEmpty();
+  }
+
+  @Test
+  void creation_request_with_start_after_end() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    var violations = validator.validate(new EventCreationRequest("Some event", start.plusHours(12), start, null));
+
+    assertThat(violations).singleElement()
+        .satisfies(v -> assertThat(v.getMessage()).isEqualTo("start must not be after end"));
+  }
+
+  @Test
+  void update_request_with_start_only() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    var violations = validator.validate(
+        new EventUpdateRequest(Optional.empty(), Optional.of(start), Optional.empty(), Optional.empty()));
+
+    assertThat(violations).isEmpty();
+  }
+
+  @Test
+  void update_request_with_start_after_end() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    var violations = validator.validate(
+        new EventUpdateRequest(Optional.empty(), Optional.of(start.plusHours(12)), Optional.of(start),
+            Optional.empty()));
+
+    assertThat(violations).hasSize(1);
+  }
+}
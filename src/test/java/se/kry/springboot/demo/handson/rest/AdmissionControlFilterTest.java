@@ -0,0 +1,79 @@
+package se.kry.springboot.demo.handson.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class AdmissionControlFilterTest {
+
+  private static final AdmissionControlProperties.Limit SETTINGS = new AdmissionControlProperties.Limit(
+      1, 1, 1, 0, Duration.ZERO, Duration.ofMillis(250), 0.5);
+
+  private AimdLimiter reads;
+  private AimdLimiter writes;
+  private SimpleMeterRegistry registry;
+  private AdmissionControlFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    reads = new AimdLimiter(SETTINGS);
+    writes = new AimdLimiter(SETTINGS);
+    registry = new SimpleMeterRegistry();
+    filter = new AdmissionControlFilter(reads, writes, Duration.ofMillis(1500), registry);
+  }
+
+  @Test
+  void rejects_reads_when_read_limiter_is_saturated() throws Exception {
+    reads.acquire();
+
+    for (var method : new String[] {"GET", "HEAD"}) {
+      var chain = new MockFilterChain();
+      var response = new MockHttpServletResponse();
+      filter.doFilter(new MockHttpServletRequest(method, "/api/v1/events"), response, chain);
+
+      assertThat(response.getStatus()).isEqualTo(503);
+      assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+      assertThat(chain.getRequest()).isNull();
+    }
+    assertThat(registry.counter("events.admission.rejected", "kind", "read").count()).isEqualTo(2.0);
+    assertThat(registry.counter("events.admission.rejected", "kind", "write").count()).isZero();
+  }
+
+  @Test
+  void admits_writes_when_only_read_limiter_is_saturated() throws Exception {
+    reads.acquire();
+
+    var chain = new MockFilterChain();
+    var response = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/events"), response, chain);
+
+    assertThat(response.getStatus()).isEqualTo(200);
+    assertThat(chain.getRequest()).isNotNull();
+    assertThat(writes.inFlight()).isZero();
+  }
+
+  @Test
+  void rejects_writes_when_write_limiter_is_saturated() throws Exception {
+    writes.acquire();
+
+    for (var method : new String[] {"POST", "PATCH", "DELETE"}) {
+      var response = new MockHttpServletResponse();
+      filter.doFilter(new MockHttpServletRequest(method, "/api/v1/events/1"), response, new MockFilterChain());
+
+      assertThat(response.getStatus()).isEqualTo(503);
+      assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+    }
+    assertThat(registry.counter("events.admission.rejected", "kind", "write").count()).isEqualTo(3.0);
+
+    var response = new MockHttpServletResponse();
+    filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/events/1"), response, new MockFilterChain());
+    assertThat(response.getStatus()).isEqualTo(200);
+  }
+}
@@ -0,0 +1,135 @@
+package se.kry.springboot.demo.handson.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class AimdLimiterTest {
+
+  private static final AdmissionControlProperties.Limit SETTINGS = new AdmissionControlProperties.Limit(
+      4, 1, 8, 0, Duration.ZERO, Duration.ofMillis(250), 0.5);
+
+  @Test
+  void rejects_beyond_limit() throws InterruptedException {
+    var limiter = new AimdLimiter(SETTINGS);
+
+    for (int i = 0; i < 4; i++) {
+      assertThat(limiter.acquire()).isTrue();
+    }
+
+    assertThat(limiter.acquire()).isFalse();
+    assertThat(limiter.inFlight()).isEqualTo(4);
+  }
+
+  @Test
+  void admits_again_after_release() throws InterruptedException {
+    var limiter = new AimdLimiter(SETTINGS);
+
+    for (int i = 0; i < 4; i++) {
+      limiter.acquire();
+    }
+    limiter.release(Duration.ofMillis(10));
+
+    assertThat(limiter.acquire()).isTrue();
+  }
+
+  @Test
+  void backs_off_on_slow_requests() throws InterruptedException {
+    var limiter = new AimdLimiter(SETTINGS);
+
+    limiter.acquire();
+    limiter.release(Duration.ofSeconds(1));
+
+    assertThat(limiter.limit()).isEqualTo(2);
+  }
+
+  @Test
+  void reset_goes_back_to_initial_limit() throws InterruptedException {
+    var limiter = new AimdLimiter(SETTINGS);
+
+    limiter.acquire();
+    limiter.release(Duration.ofSeconds(1));
+    limiter.reset();
+
+    assertThat(limiter.limit()).isEqualTo(4);
+    limiter.acquire();
+    limiter.release(Duration.ofSeconds(1));
+    assertThat(limiter.limit()).isEqualTo(2);
+  }
+
+  @Test
+  void backs_off_once_per_burst_of_slow_requests() throws InterruptedException {
+    var clock = new AtomicLong();
+    var limiter = new AimdLimiter(SETTINGS, clock::get);
+
+    for (int i = 0; i < 4; i++) {
+      limiter.acquire();
+    }
+    clock.addAndGet(Duration.ofSeconds(1).toNanos());
+    for (int i = 0; i < 4; i++) {
+      limiter.release(Duration.ofSeconds(1));
+    }
+
+    assertThat(limiter.limit()).isEqualTo(2);
+  }
+
+  @Test
+  void recovers_from_min_limit() throws InterruptedException {
+    var clock = new AtomicLong();
+    var limiter = new AimdLimiter(SETTINGS, clock::get);
+
+    while (limiter.limit() > SETTINGS.minLimit()) {
+      limiter.acquire();
+      clock.addAndGet(Duration.ofSeconds(1).toNanos());
+      limiter.release(Duration.ofSeconds(1));
+    }
+    // Sequential requests keep the single slot busy.
+    for (int i = 0; i < 3; i++) {
+      assertThat(limiter.acquire()).isTrue();
+      limiter.release(Duration.ofMillis(10));
+    }
+    assertThat(limiter.limit()).isEqualTo(2);
+
+    for (int round = 0; round < 50; round++) {
+      for (int i = 0; i < 8; i++) {
+        limiter.acquire();
+      }
+      while (limiter.inFlight() > 0) {
+        limiter.release(Duration.ofMillis(10));
+      }
+    }
+
+    assertThat(limiter.limit()).isEqualTo(8);
+  }
+
+  @Test
+  void grows_on_fast_requests_when_busy() throws InterruptedException {
+    var limiter = new AimdLimiter(SETTINGS);
+
+    for (int round = 0; round < 20; round++) {
+      for (int i = 0; i < limiter.limit(); i++) {
+        limiter.acquire();
+      }
+      while (limiter.inFlight() > 0) {
+        limiter.release(Duration.ofMillis(10));
+      }
+    }
+
+    assertThat(limiter.limit()).isEqualTo(8);
+  }
+
+  @Test
+  void waits_in_queue_until_released() throws InterruptedException {
+    var limiter = new AimdLimiter(new AdmissionControlProperties.Limit(
+        1, 1, 1, 1, Duration.ofSeconds(5), Duration.ofMillis(250), 0.5));
+
+    limiter.acquire();
+    var releaser = new Thread(() -> limiter.release(Duration.ofMillis(10)));
+    releaser.start();
+
+    assertThat(limiter.acquire()).isTrue();
+    releaser.join();
+  }
+}
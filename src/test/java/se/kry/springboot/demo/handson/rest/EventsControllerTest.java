@@ -1,17 +1,21 @@
 package se.kry.springboot.demo.handson.rest;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Month;
 import java.util.List;
@@ -23,10 +27,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import se.kry.springboot.demo.handson.domain.BatchTooLargeException;
+import se.kry.springboot.demo.handson.domain.EventArchivedException;
+import se.kry.springboot.demo.handson.domain.EventBatchResponse;
+import se.kry.springboot.demo.handson.domain.EventField;
 import se.kry.springboot.demo.handson.domain.EventResponse;
 import se.kry.springboot.demo.handson.domain.EventUpdateRequest;
+import se.kry.springboot.demo.handson.domain.PageTooDeepException;
+import se.kry.springboot.demo.handson.domain.PartialEventResponse;
+import se.kry.springboot.demo.handson.domain.StartIsAfterEndException;
+import se.kry.springboot.demo.handson.domain.UnknownFieldException;
+import se.kry.springboot.demo.handson.domain.UnsupportedSortException;
 import se.kry.springboot.demo.handson.services.EventService;
 
 @WebMvcTest(EventsController.class)
@@ -48,7 +62,7 @@ class EventsControllerTest {
     var end = start.plusHours(12);
 
     when(service.createEvent(any())).thenReturn(
-        new EventResponse(uuid, "Some event", start, end));
+        new EventResponse(uuid, "Some event", start, end, null));
 
     var payload = objectMapper.createObjectNode()
         .put("title", "someEvent")
@@ -135,7 +149,12 @@ class EventsControllerTest {
     mockMvc.perform(post("/api/v1/events")
             .contentType(MediaType.APPLICATION_JSON)
             .content(payload))
-        .andExpect(status().isBadRequest());
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpectAll(
+            jsonPath("$.status").value(400),
+            jsonPath("$.violations[0].message").value("start must not be after end")
+        );
   }
 
   @Test
@@ -149,8 +168,8 @@ class EventsControllerTest {
     var end2 = end1.plusHours(1);
 
     var content = List.of(
-        new EventResponse(uuid1, "Some event", start1, end1),
-        new EventResponse(uuid2, "Some other event", start2, end2)
+        new EventResponse(uuid1, "Some event", start1, end1, null),
+        new EventResponse(uuid2, "Some other event", start2, end2, null)
     );
 
     var pageable = PageRequest.ofSize(20);
@@ -196,6 +215,229 @@ class EventsControllerTest {
         );
   }
 
+  @Test
+  void read_events_between() throws Exception {
+    var uuid = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var end = start.plusHours(12);
+
+    var content = List.of(new EventResponse(uuid, "Some event", start, end, null));
+
+    var pageable = PageRequest.ofSize(20);
+
+    when(service.getEvents(start, start.plusMonths(1), pageable))
+        .thenReturn(new PageImpl<>(content, pageable, content.size()));
+
+    mockMvc.perform(get("/api/v1/events")
+            .param("from", "2001-01-01T00:00:00")
+            .param("to", "2001-02-01T00:00:00"))
+        .andExpect(status().isOk())
+        .andExpectAll(
+            jsonPath("$.content").isArray(),
+            jsonPath("$.content[0].id").value("38a14a82-d5a2-4210-9d61-cc3577bfa5df"),
+            jsonPath("$.totalElements").value(1)
+        );
+  }
+
+  @Test
+  void read_events_between_by_unsupported_sort() throws Exception {
+    when(service.getEvents(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+        .thenThrow(new UnsupportedSortException("recurrence"));
+
+    mockMvc.perform(get("/api/v1/events")
+            .param("from", "2001-01-01T00:00:00")
+            .param("to", "2001-02-01T00:00:00")
+            .param("sort", "recurrence"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].field").value("sort"));
+  }
+
+  @Test
+  void read_events_between_too_deep() throws Exception {
+    when(service.getEvents(any(LocalDateTime.class), any(LocalDateTime.class), any(Pageable.class)))
+        .thenThrow(new PageTooDeepException(20_020, 10_000));
+
+    mockMvc.perform(get("/api/v1/events")
+            .param("from", "2001-01-01T00:00:00")
+            .param("to", "2001-02-01T00:00:00")
+            .param("page", "1000"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].field").value("page"));
+  }
+
+  @Test
+  void read_events_by_id() throws Exception {
+    var uuid1 = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
+    var uuid2 = UUID.fromString("8ebea9a7-e0ef-4a62-a729-aff26134f9d8");
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    when(service.getEvents(List.of(uuid1, uuid2))).thenReturn(new EventBatchResponse<>(
+        List.of(new EventResponse(uuid1, "Some event", start, start.plusHours(12), null)),
+        List.of(uuid2)));
+
+    mockMvc.perform(get("/api/v1/events")
+            .param("ids", uuid1.toString(), uuid2.toString()))
+        .andExpect(status().isOk())
+        .andExpectAll(
+            jsonPath("$.events[0].id").value("38a14a82-d5a2-4210-9d61-cc3577bfa5df"),
+            jsonPath("$.events[0].title").value("Some event"),
+            jsonPath("$.missing[0]").value("8ebea9a7-e0ef-4a62-a729-aff26134f9d8")
+        );
+  }
+
+  @Test
+  void read_too_many_events_by_id() throws Exception {
+    when(service.getEvents(anyList())).thenThrow(new BatchTooLargeException(101, 100));
+
+    mockMvc.perform(get("/api/v1/events")
+            .param("ids", "38a14a82-d5a2-4210-9d61-cc3577bfa5df"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].field").value("ids"));
+  }
+
+  @Test
+  void read_events_by_malformed_id() throws Exception {
+    mockMvc.perform(get("/api/v1/events")
+            .param("ids", "38a14a82-d5a2-4210-9d61-cc3577bfa5df,foobar"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpectAll(
+            jsonPath("$.status").value(400),
+            jsonPath("$.violations[0].field").value("ids")
+        );
+  }
+
+  @Test
+  void read_events_between_malformed_dates() throws Exception {
+    mockMvc.perform(get("/api/v1/events")
+            .param("from", "2001-01-01")
+            .param("to", "2001-02-01T00:00:00"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].field").value("from"));
+  }
+
+  @Test
+  void replace_events_is_not_allowed() throws Exception {
+    mockMvc.perform(put("/api/v1/events"))
+        .andExpect(status().isMethodNotAllowed())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.status").value(405))
+        .andExpect(jsonPath("$.detail").value("Request method not supported by this resource"));
+  }
+
+  @Test
+  void create_event_with_unsupported_content_type() throws Exception {
+    mockMvc.perform(post("/api/v1/events")
+            .contentType(MediaType.TEXT_PLAIN)
+            .content("Some event"))
+        .andExpect(status().isUnsupportedMediaType())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.detail").value("Content type not supported by this resource"));
+  }
+
+  @Test
+  void read_events_with_fields() throws Exception {
+    var pageable = PageRequest.ofSize(20);
+
+    var event = new PartialEventResponse(List.of(EventField.ID, EventField.START), new Object[] {
+        UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df"),
+        LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT)});
+
+    when(service.getEvents("id,start", pageable))
+        .thenReturn(new PageImpl<>(List.of(event), pageable, 1));
+
+    mockMvc.perform(get("/api/v1/events").param("fields", "id,start"))
+        .andExpect(status().isOk())
+        .andExpectAll(
+            jsonPath("$.content[0].id").value("38a14a82-d5a2-4210-9d61-cc3577bfa5df"),
+            jsonPath("$.content[0].start").value("2001-01-01T00:00:00"),
+            jsonPath("$.content[0].title").doesNotExist()
+        );
+  }
+
+  @Test
+  void read_events_between_with_fields() throws Exception {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var pageable = PageRequest.ofSize(20);
+
+    var event = new PartialEventResponse(List.of(EventField.TITLE, EventField.START),
+        new Object[] {"Some event", start});
+
+    when(service.getEvents(start, start.plusMonths(1), "title,start", pageable))
+        .thenReturn(new PageImpl<>(List.of(event), pageable, 1));
+
+    mockMvc.perform(get("/api/v1/events")
+            .param("from", "2001-01-01T00:00:00")
+            .param("to", "2001-02-01T00:00:00")
+            .param("fields", "title,start"))
+        .andExpect(status().isOk())
+        .andExpectAll(
+            jsonPath("$.content[0].title").value("Some event"),
+            jsonPath("$.content[0].start").value("2001-01-01T00:00:00"),
+            jsonPath("$.content[0].id").doesNotExist()
+        );
+  }
+
+  @Test
+  void read_events_by_id_with_fields() throws Exception {
+    var uuid1 = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
+    var uuid2 = UUID.fromString("8ebea9a7-e0ef-4a62-a729-aff26134f9d8");
+
+    // The id the batch is matched by trails the selected values.
+    var event = new PartialEventResponse(List.of(EventField.ID, EventField.TITLE),
+        new Object[] {uuid1, "Some event", uuid1});
+
+    when(service.getEvents(List.of(uuid1, uuid2), "id,title"))
+        .thenReturn(new EventBatchResponse<>(List.of(event), List.of(uuid2)));
+
+    mockMvc.perform(get("/api/v1/events")
+            .param("ids", uuid1.toString(), uuid2.toString())
+            .param("fields", "id,title"))
+        .andExpect(status().isOk())
+        .andExpectAll(
+            jsonPath("$.events[0].id").value("38a14a82-d5a2-4210-9d61-cc3577bfa5df"),
+            jsonPath("$.events[0].title").value("Some event"),
+            jsonPath("$.events[0].start").doesNotExist(),
+            jsonPath("$.missing[0]").value("8ebea9a7-e0ef-4a62-a729-aff26134f9d8")
+        );
+  }
+
+  @Test
+  void read_events_by_id_between_is_rejected() throws Exception {
+    mockMvc.perform(get("/api/v1/events")
+            .param("ids", "38a14a82-d5a2-4210-9d61-cc3577bfa5df")
+            .param("from", "2001-01-01T00:00:00")
+            .param("to", "2001-02-01T00:00:00"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.detail").value("Unsupported combination of request parameters"));
+  }
+
+  @Test
+  void read_events_from_without_to_is_rejected() throws Exception {
+    mockMvc.perform(get("/api/v1/events")
+            .param("from", "2001-01-01T00:00:00"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.status").value(400));
+  }
+
+  @Test
+  void read_event_with_unknown_field() throws Exception {
+    var uuid = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
+
+    when(service.getEvent(uuid, "id,location")).thenThrow(new UnknownFieldException("location"));
+
+    mockMvc.perform(get("/api/v1/events/{id}", uuid).param("fields", "id,location"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].field").value("fields"));
+  }
+
   @Test
   void read_event() throws Exception {
     var uuid = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
@@ -203,7 +445,7 @@ class EventsControllerTest {
     var end = start.plusHours(12);
 
     when(service.getEvent(uuid)).thenReturn(
-        Optional.of(new EventResponse(uuid, "Some event", start, end)));
+        Optional.of(new EventResponse(uuid, "Some event", start, end, null)));
 
     mockMvc.perform(get("/api/v1/events/{id}", uuid))
         .andExpect(status().isOk())
@@ -223,8 +465,8 @@ class EventsControllerTest {
     var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
 
     when(service.updateEvent(uuid,
-        new EventUpdateRequest(Optional.of("Some other event"), Optional.empty(), Optional.empty())))
-        .thenReturn(Optional.of(new EventResponse(uuid, "Some other event", start, start.plusHours(12))));
+        new EventUpdateRequest(Optional.of("Some other event"), Optional.empty(), Optional.empty(), Optional.empty())))
+        .thenReturn(Optional.of(new EventResponse(uuid, "Some other event", start, start.plusHours(12), null)));
 
     mockMvc.perform(patch("/api/v1/events/{id}", uuid)
             .contentType(MediaType.APPLICATION_JSON)
@@ -285,20 +527,77 @@ class EventsControllerTest {
     mockMvc.perform(patch("/api/v1/events/{id}", uuid)
             .contentType(MediaType.APPLICATION_JSON)
             .content(payload))
-        .andExpect(status().isBadRequest());
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].message").value("start must not be after end"));
+  }
+
+  @Test
+  void update_event_with_start_after_stored_end() throws Exception {
+    var uuid = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    var payload = objectMapper.createObjectNode()
+        .put("start", "2001-01-02T00:00:00")
+        .toString();
+
+    when(service.updateEvent(uuid,
+        new EventUpdateRequest(Optional.empty(), Optional.of(start.plusDays(1)), Optional.empty(), Optional.empty())))
+        .thenThrow(new StartIsAfterEndException(start.plusDays(1), start.plusHours(12)));
+
+    mockMvc.perform(patch("/api/v1/events/{id}", uuid)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].field").value("start"));
+  }
+
+  @Test
+  void update_archived_event() throws Exception {
+    var uuid = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
+
+    var payload = objectMapper.createObjectNode()
+        .put("title", "Some other event")
+        .toString();
+
+    when(service.updateEvent(uuid,
+        new EventUpdateRequest(Optional.of("Some other event"), Optional.empty(), Optional.empty(), Optional.empty())))
+        .thenThrow(new EventArchivedException(uuid));
+
+    mockMvc.perform(patch("/api/v1/events/{id}", uuid)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(payload))
+        .andExpect(status().isConflict())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.status").value(409));
   }
 
   @Test
   void delete_event() throws Exception {
     var uuid = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
 
+    when(service.deleteEvent(uuid)).thenReturn(true);
+
     mockMvc.perform(delete("/api/v1/events/{id}", uuid))
         .andExpect(status().isOk());
   }
 
+  @Test
+  void delete_unknown_event() throws Exception {
+    var uuid = UUID.fromString("38a14a82-d5a2-4210-9d61-cc3577bfa5df");
+
+    when(service.deleteEvent(uuid)).thenReturn(false);
+
+    mockMvc.perform(delete("/api/v1/events/{id}", uuid))
+        .andExpect(status().isNotFound());
+  }
+
   @Test
   void delete_event_with_incorrect_id() throws Exception {
     mockMvc.perform(delete("/api/v1/events/{id}", "foobar"))
-        .andExpect(status().isBadRequest());
+        .andExpect(status().isBadRequest())
+        .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+        .andExpect(jsonPath("$.violations[0].field").value("id"));
   }
 }
\ No newline at end of file
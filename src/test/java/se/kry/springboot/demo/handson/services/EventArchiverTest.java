@@ -0,0 +1,154 @@
+package se.kry.springboot.demo.handson.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import se.kry.springboot.demo.handson.data.ArchivedEventRepository;
+import se.kry.springboot.demo.handson.data.Event;
+import se.kry.springboot.demo.handson.data.EventRepository;
+import se.kry.springboot.demo.handson.data.Recurrence;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+
+// Not transactional, so that every chunk commits on its own like in production.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventArchiverTest {
+
+  @Autowired
+  private EventRepository repository;
+
+  @Autowired
+  private ArchivedEventRepository archivedRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+    repository.findAllBy(Pageable.unpaged()).forEach(repository::delete);
+    archivedRepository.deleteAll();
+  }
+
+  @Test
+  void archive_events_ended_before_cutoff() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    IntStream.range(0, 50)
+        .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
+        .forEach(repository::save);
+
+    var registry = new SimpleMeterRegistry();
+    var counter = new EventCounter(repository, registry);
+    var archiver = archiver(counter, registry);
+
+    var archived = archiver.archiveEndedBefore(start.plusDays(30));
+
+    assertThat(archived).isEqualTo(30);
+    assertThat(repository.count()).isEqualTo(20);
+    assertThat(archivedRepository.count()).isEqualTo(30);
+    assertThat(counter.count()).isEqualTo(20);
+    assertThat(registry.counter("events.archive.moved").count()).isEqualTo(30.0);
+  }
+
+  @Test
+  void archive_series_by_last_occurrence() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var ended = repository.save(new Event().setTitle("Ended").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setCount(10))).getId();
+    var running = repository.save(new Event().setTitle("Running").setStart(start).setEnd(start.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setCount(100))).getId();
+
+    var registry = new SimpleMeterRegistry();
+    var archiver = archiver(new EventCounter(repository, registry), registry);
+
+    assertThat(archiver.archiveEndedBefore(start.plusDays(30))).isEqualTo(1);
+    assertThat(repository.findById(running)).isNotEmpty();
+    assertThat(archivedRepository.findById(ended)).hasValueSatisfying(
+        event -> assertThat(event.getRecurrence().getCount()).isEqualTo(10));
+  }
+
+  @Test
+  void purge_archived_events() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+    IntStream.range(0, 50)
+        .mapToObj(i -> new Event().setTitle("Event" + i).setStart(start.plusDays(i)).setEnd(start.plusDays(i).plusHours(12)))
+        .forEach(repository::save);
+
+    var registry = new SimpleMeterRegistry();
+    var counter = new EventCounter(repository, registry);
+    var archiver = archiver(counter, registry);
+    var service = new EventService(repository, Optional.of(archivedRepository), counter, new EventProjections());
+
+    archiver.archiveEndedBefore(start.plusDays(30));
+    var purged = new TransactionTemplate(transactionManager)
+        .execute(status -> service.deleteEventsEndedBefore(start.plusDays(40)));
+
+    assertThat(purged).isEqualTo(40);
+    assertThat(archivedRepository.count()).isZero();
+    assertThat(repository.count()).isEqualTo(10);
+    assertThat(counter.count()).isEqualTo(10);
+  }
+
+  @Test
+  void archive_on_own_executor() throws Exception {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    repository.save(new Event().setTitle("Some event").setStart(start).setEnd(start.plusHours(12)));
+
+    var registry = new SimpleMeterRegistry();
+    var archiver = archiver(new EventCounter(repository, registry), registry);
+
+    archiver.archive();
+    executor.submit(() -> { }).get(10, TimeUnit.SECONDS);
+
+    assertThat(archivedRepository.count()).isEqualTo(1);
+    assertThat(repository.count()).isZero();
+  }
+
+  @Test
+  void archive_keeps_other_events_cached() {
+    var start = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+    var ended = repository.save(new Event().setTitle("Ended").setStart(start).setEnd(start.plusHours(1))).getId();
+    var upcoming = repository.save(new Event().setTitle("Upcoming").setStart(start.plusYears(1))
+        .setEnd(start.plusYears(1).plusHours(1))).getId();
+    repository.findById(ended);
+    repository.findById(upcoming);
+
+    var registry = new SimpleMeterRegistry();
+    archiver(new EventCounter(repository, registry), registry).archiveEndedBefore(start.plusDays(30));
+
+    var cache = entityManagerFactory.getCache();
+    assertThat(cache.contains(Event.class, ended)).isFalse();
+    assertThat(cache.contains(Event.class, upcoming)).isTrue();
+  }
+
+  private EventArchiver archiver(EventCounter counter, SimpleMeterRegistry registry) {
+    return new EventArchiver(repository, archivedRepository, new TransactionTemplate(transactionManager),
+        new EventArchiveProperties(Duration.ofDays(365), 7, Duration.ZERO), counter, executor, registry);
+  }
+}
@@ -0,0 +1,52 @@
+package se.kry.springboot.demo.handson.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import se.kry.springboot.demo.handson.data.EventRepository;
+
+class EventCounterTest {
+
+  @Test
+  void count_follows_writes_and_reconciles() {
+    var repository = mock(EventRepository.class);
+    when(repository.count()).thenReturn(3L);
+    var counter = new EventCounter(repository, new SimpleMeterRegistry());
+
+    counter.add(2);
+    counter.add(-1);
+
+    assertThat(counter.count()).isEqualTo(4);
+
+    when(repository.count()).thenReturn(7L);
+    counter.reconcile();
+
+    assertThat(counter.count()).isEqualTo(4);
+
+    counter.reconcile();
+
+    assertThat(counter.count()).isEqualTo(7);
+  }
+
+  @Test
+  void transient_drift_is_not_corrected() {
+    var repository = mock(EventRepository.class);
+    when(repository.count()).thenReturn(3L);
+    var counter = new EventCounter(repository, new SimpleMeterRegistry());
+
+    // A write committed while counting, then another one, each seen by a single reconciliation.
+    when(repository.count()).thenReturn(4L);
+    counter.reconcile();
+    counter.add(1);
+    when(repository.count()).thenReturn(6L);
+    counter.reconcile();
+    counter.add(1);
+    when(repository.count()).thenReturn(5L);
+    counter.reconcile();
+
+    assertThat(counter.count()).isEqualTo(5);
+  }
+}
@@ -0,0 +1,33 @@
+package se.kry.springboot.demo.handson.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class EventPurgerTest {
+
+  @Test
+  void purge_events_older_than_retention() {
+    var service = mock(EventService.class);
+    when(service.deleteEventsEndedBefore(any())).thenReturn(3);
+    var registry = new SimpleMeterRegistry();
+    var purger = new EventPurger(service, new EventPurgeProperties(Duration.ofDays(30)), registry);
+
+    purger.purge();
+
+    var cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(service).deleteEventsEndedBefore(cutoff.capture());
+    assertThat(cutoff.getValue()).isCloseTo(LocalDateTime.now().minusDays(30), within(1, ChronoUnit.MINUTES));
+    assertThat(registry.counter("events.purge.deleted").count()).isEqualTo(3.0);
+  }
+}
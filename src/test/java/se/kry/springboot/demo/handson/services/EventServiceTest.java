@@ -0,0 +1,227 @@
+package se.kry.springboot.demo.handson.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static se.kry.springboot.demo.handson.domain.EventConstants.MAX_BATCH_SIZE;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import se.kry.springboot.demo.handson.data.ArchivedEvent;
+import se.kry.springboot.demo.handson.data.ArchivedEventRepository;
+import se.kry.springboot.demo.handson.data.Event;
+import se.kry.springboot.demo.handson.data.EventRepository;
+import se.kry.springboot.demo.handson.data.Recurrence;
+import se.kry.springboot.demo.handson.domain.BatchTooLargeException;
+import se.kry.springboot.demo.handson.domain.EventArchivedException;
+import se.kry.springboot.demo.handson.domain.EventField;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+import se.kry.springboot.demo.handson.domain.EventResponse;
+import se.kry.springboot.demo.handson.domain.EventUpdateRequest;
+import se.kry.springboot.demo.handson.domain.PageTooDeepException;
+import se.kry.springboot.demo.handson.domain.UnsupportedSortException;
+
+@DataJpaTest
+class EventServiceTest {
+
+  private static final LocalDateTime START = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+  @Autowired
+  private EventRepository repository;
+
+  @Autowired
+  private ArchivedEventRepository archivedRepository;
+
+  private EventService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new EventService(repository, Optional.of(archivedRepository),
+        new EventCounter(repository, new SimpleMeterRegistry()), new EventProjections());
+  }
+
+  @Test
+  void delete_live_event() {
+    var id = repository.save(new Event().setTitle("Some event").setStart(START).setEnd(START.plusHours(1))).getId();
+
+    assertThat(service.deleteEvent(id)).isTrue();
+    assertThat(service.getEvent(id)).isEmpty();
+  }
+
+  @Test
+  void delete_archived_event() {
+    var id = archive("Some event");
+
+    assertThat(service.getEvent(id)).isNotEmpty();
+    assertThat(service.deleteEvent(id)).isTrue();
+    assertThat(service.getEvent(id)).isEmpty();
+  }
+
+  @Test
+  void delete_unknown_event() {
+    assertThat(service.deleteEvent(UUID.randomUUID())).isFalse();
+  }
+
+  @Test
+  void update_archived_event() {
+    var id = archive("Some event");
+    var update = new EventUpdateRequest(Optional.of("Some other event"), Optional.empty(), Optional.empty(),
+        Optional.empty());
+
+    assertThatThrownBy(() -> service.updateEvent(id, update)).isInstanceOf(EventArchivedException.class);
+  }
+
+  @Test
+  void update_unknown_event() {
+    var update = new EventUpdateRequest(Optional.of("Some other event"), Optional.empty(), Optional.empty(),
+        Optional.empty());
+
+    assertThat(service.updateEvent(UUID.randomUUID(), update)).isEmpty();
+  }
+
+  @Test
+  void get_events_between_merges_occurrences_into_page() {
+    saveDailyEventsAndWeeklySeries();
+
+    var page = service.getEvents(START, START.plusDays(30), PageRequest.of(1, 10));
+
+    assertThat(page.getTotalElements()).isEqualTo(35);
+    assertThat(page.getContent()).extracting(EventResponse::start).containsExactly(
+        START.plusDays(8).plusHours(9), START.plusDays(9).plusHours(9), START.plusDays(10).plusHours(9),
+        START.plusDays(11).plusHours(9), START.plusDays(12).plusHours(9), START.plusDays(13).plusHours(9),
+        START.plusDays(14).plusHours(9), START.plusDays(14).plusHours(12), START.plusDays(15).plusHours(9),
+        START.plusDays(16).plusHours(9));
+  }
+
+  @Test
+  void get_events_between_keeps_requested_sort() {
+    saveDailyEventsAndWeeklySeries();
+
+    var pageable = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "start"));
+
+    var page = service.getEvents(START, START.plusDays(30), pageable);
+
+    assertThat(page.getContent()).extracting(EventResponse::start).containsExactly(
+        START.plusDays(29).plusHours(9), START.plusDays(28).plusHours(12), START.plusDays(28).plusHours(9));
+    assertThat(page.getContent().get(1).recurrence()).isNotNull();
+  }
+
+  @Test
+  void get_events_with_fields_counts_from_counter() {
+    IntStream.range(0, 3).mapToObj(i -> "Event" + i).forEach(this::save);
+    var counter = new EventCounter(repository, new SimpleMeterRegistry());
+    service = new EventService(repository, Optional.of(archivedRepository), counter, new EventProjections());
+    // Written behind the counter's back, so only the exact count of the repository would include it.
+    save("Event3");
+
+    var page = service.getEvents("title", PageRequest.of(0, 2));
+
+    assertThat(page.getContent()).hasSize(2)
+        .allSatisfy(event -> assertThat(event.fields()).containsExactly(EventField.TITLE));
+    assertThat(page.getTotalElements()).isEqualTo(3);
+  }
+
+  @Test
+  void get_events_between_with_fields_merges_by_unselected_sort() {
+    saveDailyEventsAndWeeklySeries();
+
+    var page = service.getEvents(START, START.plusDays(30), "title", PageRequest.of(1, 10));
+
+    assertThat(page.getTotalElements()).isEqualTo(35);
+    assertThat(page.getContent()).allSatisfy(event -> assertThat(event.fields()).containsExactly(EventField.TITLE));
+    assertThat(page.getContent()).extracting(event -> event.get(EventField.TITLE)).containsExactly(
+        "Event8", "Event9", "Event10", "Event11", "Event12", "Event13", "Event14", "Weekly", "Event15", "Event16");
+  }
+
+  @Test
+  void get_events_by_ids_with_fields_in_request_order() {
+    var first = save("First event");
+    var archived = archive("Archived event");
+    var unknown = UUID.randomUUID();
+
+    var batch = service.getEvents(List.of(archived, unknown, first), "title");
+
+    assertThat(batch.events()).extracting(event -> event.get(EventField.TITLE))
+        .containsExactly("Archived event", "First event");
+    assertThat(batch.missing()).containsExactly(unknown);
+  }
+
+  @Test
+  void get_events_between_by_unsupported_sort() {
+    saveDailyEventsAndWeeklySeries();
+
+    var pageable = PageRequest.of(0, 3, Sort.by("recurrence"));
+
+    assertThatThrownBy(() -> service.getEvents(START, START.plusDays(30), pageable))
+        .isInstanceOf(UnsupportedSortException.class);
+  }
+
+  @Test
+  void get_events_between_too_deep() {
+    saveDailyEventsAndWeeklySeries();
+
+    var pageable = PageRequest.of(Integer.MAX_VALUE, 20);
+
+    assertThatThrownBy(() -> service.getEvents(START, START.plusDays(30), pageable))
+        .isInstanceOf(PageTooDeepException.class);
+  }
+
+  @Test
+  void get_events_by_ids_in_request_order() {
+    var first = save("First event");
+    var second = save("Second event");
+    var archived = archive("Archived event");
+    var unknown = UUID.randomUUID();
+
+    var batch = service.getEvents(List.of(second, unknown, archived, first, second));
+
+    assertThat(batch.events()).extracting(EventResponse::id).containsExactly(second, archived, first);
+    assertThat(batch.events()).extracting(EventResponse::title)
+        .containsExactly("Second event", "Archived event", "First event");
+    assertThat(batch.missing()).containsExactly(unknown);
+  }
+
+  @Test
+  void get_events_by_too_many_ids() {
+    var ids = IntStream.range(0, MAX_BATCH_SIZE + 1).mapToObj(i -> UUID.randomUUID()).toList();
+
+    assertThatThrownBy(() -> service.getEvents(ids)).isInstanceOf(BatchTooLargeException.class);
+    assertThat(service.getEvents(ids.subList(0, MAX_BATCH_SIZE)).missing()).hasSize(MAX_BATCH_SIZE);
+  }
+
+  private UUID save(String title) {
+    return repository.save(new Event().setTitle(title).setStart(START).setEnd(START.plusHours(1))).getId();
+  }
+
+  private void saveDailyEventsAndWeeklySeries() {
+    IntStream.range(0, 30)
+        .mapToObj(i -> new Event().setTitle("Event" + i)
+            .setStart(START.plusDays(i).plusHours(9)).setEnd(START.plusDays(i).plusHours(10)))
+        .forEach(repository::save);
+    repository.save(new Event().setTitle("Weekly").setStart(START.plusHours(12)).setEnd(START.plusHours(13))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.WEEKLY).setInterval(1)));
+  }
+
+  private UUID archive(String title) {
+    var id = UUID.randomUUID();
+    archivedRepository.save(new ArchivedEvent()
+        .setId(id)
+        .setTitle(title)
+        .setStart(START)
+        .setEnd(START.plusHours(1))
+        .setArchivedAt(START.plusYears(2)));
+    return id;
+  }
+}
@@ -0,0 +1,80 @@
+package se.kry.springboot.demo.handson.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ReadCoalescerTest {
+
+  @Test
+  void concurrent_reads_share_load() throws Exception {
+    var coalescer = new ReadCoalescer<String, String>();
+    var loads = new AtomicInteger();
+    var loading = new CountDownLatch(1);
+    var loaded = new CountDownLatch(1);
+
+    var first = CompletableFuture.supplyAsync(() -> coalescer.load("key", () -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      await(loaded);
+      return "value";
+    }));
+    assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+    var second = new CompletableFuture<String>();
+    var reader = new Thread(() -> second.complete(coalescer.load("key", () -> {
+      loads.incrementAndGet();
+      return "other value";
+    })));
+    reader.start();
+    // Parked once it joined the load in flight.
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (reader.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+      Thread.sleep(1L);
+    }
+    loaded.countDown();
+
+    assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+    assertThat(second.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+    assertThat(loads).hasValue(1);
+  }
+
+  @Test
+  void reads_after_forget_load_again() throws Exception {
+    var coalescer = new ReadCoalescer<String, String>();
+    var loading = new CountDownLatch(1);
+    var loaded = new CountDownLatch(1);
+
+    var first = CompletableFuture.supplyAsync(() -> coalescer.load("key", () -> {
+      loading.countDown();
+      await(loaded);
+      return "value";
+    }));
+    assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+    coalescer.forget("key");
+
+    assertThat(coalescer.load("key", () -> "updated value")).isEqualTo("updated value");
+    loaded.countDown();
+    assertThat(first.get(10, TimeUnit.SECONDS)).isEqualTo("value");
+  }
+
+  @Test
+  void reads_after_load_load_again() {
+    var coalescer = new ReadCoalescer<String, String>();
+
+    coalescer.load("key", () -> "value");
+
+    assertThat(coalescer.load("key", () -> "updated value")).isEqualTo("updated value");
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
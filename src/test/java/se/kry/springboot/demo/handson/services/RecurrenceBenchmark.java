@@ -0,0 +1,61 @@
+package se.kry.springboot.demo.handson.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Month;
+import java.util.Optional;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import se.kry.springboot.demo.handson.Benchmarks;
+import se.kry.springboot.demo.handson.data.Event;
+import se.kry.springboot.demo.handson.data.EventRepository;
+import se.kry.springboot.demo.handson.data.Recurrence;
+import se.kry.springboot.demo.handson.domain.EventRecurrence.Frequency;
+
+@DataJpaTest
+@Tag(Benchmarks.TAG)
+class RecurrenceBenchmark {
+
+  private static final LocalDateTime START = LocalDate.of(2001, Month.JANUARY, 1).atTime(LocalTime.MIDNIGHT);
+
+  @Autowired
+  private EventRepository repository;
+
+  @Test
+  void storage_per_series() {
+    for (var count : new int[] {10, 1_000, 100_000}) {
+      var before = repository.count();
+      repository.save(new Event().setTitle("Series of " + count).setStart(START).setEnd(START.plusHours(1))
+          .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1).setCount(count)));
+
+      var rows = repository.count() - before;
+      System.out.printf("Series of %,d occurrences stored in %d row%n", count, rows);
+      assertThat(rows).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void expansion_by_window() {
+    repository.save(new Event().setTitle("Daily").setStart(START).setEnd(START.plusHours(1))
+        .setRecurrence(new Recurrence().setFrequency(Frequency.DAILY).setInterval(1)));
+    var service = new EventService(repository, Optional.empty(), new EventCounter(repository,
+        new SimpleMeterRegistry()), new EventProjections());
+
+    // The same window far from the start of the series should cost the same, a window 10 times larger 10 times more.
+    for (var from : new LocalDateTime[] {START, START.plusYears(30)}) {
+      for (var days : new int[] {7, 70, 700}) {
+        var to = from.plusDays(days);
+        Benchmarks.throughput(String.format("Window of %d days from %s", days, from.toLocalDate()),
+            () -> service.getEvents(from, to, Pageable.unpaged()));
+        assertThat(service.getEvents(from, to, Pageable.unpaged())).hasSize(days);
+      }
+    }
+  }
+}